@@ -25,6 +25,7 @@ package p02_OOP;
 
 import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.function.DoubleBinaryOperator;
 
 public class EnumDemo {
 
@@ -87,8 +88,11 @@ public class EnumDemo {
     /**
      * 💡 INTUITION: Each enum constant can have its OWN implementation of a method.
      * This is like having a mini-strategy pattern built into the enum.
+     *
+     * Implementing DoubleBinaryOperator lets a constant go anywhere a plain
+     * (double, double) -> double function is expected, e.g. OperatorRegistry.
      */
-    enum Operation {
+    public enum Operation implements DoubleBinaryOperator {
         ADD("+") {
             @Override
             public double apply(double a, double b) {
@@ -124,6 +128,15 @@ public class EnumDemo {
 
         public abstract double apply(double a, double b);
 
+        @Override
+        public double applyAsDouble(double a, double b) {
+            return apply(a, b);
+        }
+
+        public char symbol() {
+            return symbol.charAt(0);
+        }
+
         @Override
         public String toString() {
             return symbol;
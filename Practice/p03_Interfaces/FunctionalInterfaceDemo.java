@@ -45,13 +45,19 @@ public class FunctionalInterfaceDemo {
      *                      abstract methods matter.
      */
     @FunctionalInterface
-    interface MathOperation {
+    public interface MathOperation extends DoubleBinaryOperator {
         double operate(double a, double b);
 
         // ✅ Default methods are fine — they have a body
         default void printDescription() {
             System.out.println("  A math operation on two numbers");
         }
+
+        // Still functional: this implements DoubleBinaryOperator's one abstract method
+        @Override
+        default double applyAsDouble(double a, double b) {
+            return operate(a, b);
+        }
     }
 
     @FunctionalInterface
@@ -1,21 +1,63 @@
 package p07_Applications;
 
-import java.util.Scanner;
+import java.io.*;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 public class Calculator {
-    public static void main(String[] args) {
+
+    /** Repeated formulas skip parsing; shared by the REPL and batch workers. */
+    static final ExpressionCache CACHE = new ExpressionCache(1024);
+
+    /** Lines per work item in batch mode; big enough to amortise task overhead. */
+    static final int BATCH_CHUNK = 4096;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            runBatchMode(args.length > 1 ? args[1] : "-");
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
+        DecimalEvaluator decimal = null; // null → double mode
 
         while (true) {
-            System.out.print("\n[Enter expression (e.g., 2+3) or 'exit']\n> ");
+            System.out.print("\n[Enter expression (e.g., 2+3*(4-1), sqrt(16)), 'precision <digits|off>' or 'exit']\n> ");
             String input = scanner.nextLine().trim();
 
             if (input.equalsIgnoreCase("exit"))
                 break;
 
+            if (input.toLowerCase().startsWith("precision")) {
+                String setting = input.substring("precision".length()).trim();
+                if (setting.equalsIgnoreCase("off")) {
+                    decimal = null;
+                    System.out.println("Double mode.");
+                } else {
+                    try {
+                        int digits = Integer.parseInt(setting);
+                        decimal = new DecimalEvaluator(new MathContext(digits, RoundingMode.HALF_EVEN));
+                        System.out.println("Decimal mode, " + (digits == 0 ? "unlimited" : digits) + " digits.");
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Error: precision takes a digit count (0 = unlimited) or 'off'.");
+                    }
+                }
+                continue;
+            }
+
             try {
+                if (decimal != null) {
+                    System.out.println("Result: " + decimal.evaluate(CACHE.get(input)).toPlainString());
+                    continue;
+                }
                 double result = evaluate(input);
                 System.out.println("Result: " + result);
+            } catch (ExpressionEngine.ExpressionException | ArithmeticException e) {
+                System.out.println("Error: " + e.getMessage());
             } catch (Exception e) {
                 System.out.println("Error: Invalid expression.");
             }
@@ -23,34 +65,114 @@ public class Calculator {
         scanner.close();
     }
 
-    private static double evaluate(String expression) {
-        expression = expression.replaceAll("\\s+", "");
+    /** Parses with ExpressionEngine (via the cache): precedence, parentheses, unary minus and functions. */
+    static double evaluate(String expression) {
+        return CACHE.get(expression).evaluate();
+    }
 
-        char operator = ' ';
-        int opIndex = -1;
+    // =====================================================================
+    // BATCH MODE — java p07_Applications.Calculator --batch [file | -]
+    // =====================================================================
 
-        // Find operator (skipping index 0 for negative numbers)
-        for (int i = 1; i < expression.length(); i++) {
-            char c = expression.charAt(i);
-            if (c == '+' || c == '-' || c == '*' || c == '/') {
-                operator = c;
-                opIndex = i;
-                break;
-            }
+    record BatchStats(long lines, long errors, long elapsedNanos) {
+        @Override
+        public String toString() {
+            return String.format("%,d lines, %,d errors in %.1f ms (%,.0f lines/s)", lines, errors,
+                    elapsedNanos / 1e6, lines / (elapsedNanos / 1e9));
+        }
+    }
+
+    private record ChunkResult(String output, int errors) {
+    }
+
+    private static void runBatchMode(String source) throws IOException, InterruptedException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        BatchStats stats;
+        try (BufferedReader in = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8)) {
+            stats = runBatch(in, out, Runtime.getRuntime().availableProcessors());
         }
+        out.flush();
+        System.err.println("Batch: " + stats);
+        System.err.println("Expression cache: " + CACHE.stats());
+    }
 
-        if (opIndex == -1)
-            throw new IllegalArgumentException();
+    /**
+     * Reads expressions line by line, evaluates chunks of BATCH_CHUNK lines on
+     * a worker pool and writes one output line per input line, in input order.
+     * A bad line produces "Error: line N: ..." and the run continues.
+     * At most 2 × workers chunks are in flight, so memory stays bounded no
+     * matter how large the input is.
+     */
+    static BatchStats runBatch(BufferedReader in, Writer out, int workers) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "calculator-batch");
+            t.setDaemon(true);
+            return t;
+        });
+        Deque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+        long lines = 0;
+        long errors = 0;
+        try {
+            List<String> chunk = new ArrayList<>(BATCH_CHUNK);
+            String line;
+            while ((line = in.readLine()) != null) {
+                chunk.add(line);
+                lines++;
+                if (chunk.size() == BATCH_CHUNK) {
+                    List<String> work = chunk;
+                    long firstLine = lines - work.size() + 1;
+                    inFlight.add(pool.submit(() -> evaluateChunk(work, firstLine)));
+                    chunk = new ArrayList<>(BATCH_CHUNK);
+                    if (inFlight.size() >= 2 * workers)
+                        errors += writeNext(inFlight, out);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                List<String> work = chunk;
+                long firstLine = lines - work.size() + 1;
+                inFlight.add(pool.submit(() -> evaluateChunk(work, firstLine)));
+            }
+            while (!inFlight.isEmpty())
+                errors += writeNext(inFlight, out);
+        } finally {
+            pool.shutdownNow();
+        }
+        return new BatchStats(lines, errors, System.nanoTime() - start);
+    }
 
-        double num1 = Double.parseDouble(expression.substring(0, opIndex));
-        double num2 = Double.parseDouble(expression.substring(opIndex + 1));
+    /** Waits for the OLDEST chunk (order is preserved) and writes it. */
+    private static int writeNext(Deque<Future<ChunkResult>> inFlight, Writer out)
+            throws IOException, InterruptedException {
+        try {
+            ChunkResult result = inFlight.poll().get();
+            out.write(result.output());
+            return result.errors();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch worker failed", e.getCause());
+        }
+    }
 
-        return switch (operator) {
-            case '+' -> num1 + num2;
-            case '-' -> num1 - num2;
-            case '*' -> num1 * num2;
-            case '/' -> num1 / num2;
-            default -> throw new IllegalArgumentException();
-        };
+    private static ChunkResult evaluateChunk(List<String> lines, long firstLine) {
+        StringBuilder output = new StringBuilder(lines.size() * 12);
+        int errors = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            String expression = lines.get(i);
+            if (expression.isBlank()) {
+                output.append('\n');
+                continue;
+            }
+            try {
+                output.append(evaluate(expression)).append('\n');
+            } catch (RuntimeException e) {
+                errors++;
+                output.append("Error: line ").append(firstLine + i).append(": ")
+                        .append(e instanceof ExpressionEngine.ExpressionException ? e.getMessage() : "Invalid expression.")
+                        .append('\n');
+            }
+        }
+        return new ChunkResult(output.toString(), errors);
     }
-}
\ No newline at end of file
+}
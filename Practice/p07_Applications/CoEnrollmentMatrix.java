@@ -0,0 +1,321 @@
+/**
+ * CoEnrollmentMatrix.java — How Many Students Took Both Courses?
+ * ===============================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: Exam scheduling must not put two courses in the same slot if
+ *    many students take both. Picture a C × C table where cell [a][b] counts
+ *    the students enrolled in both a and b. Most cells are zero (a CSE
+ *    student rarely takes Marketing), so we store it SPARSELY: one small
+ *    hash map per row, holding only the non-zero cells. The table is
+ *    symmetric, so [a][b] and [b][a] are kept equal.
+ *
+ *    Full build, in parallel:
+ *      - split the students into chunks, one per worker
+ *      - each worker counts into its OWN local rows (no sharing → no locks)
+ *      - merge the local rows into the final matrix at the end
+ *
+ *    Incremental: courses are only ever added and LinkedHashMap keeps them in
+ *    insertion order, so the courses a student gained since we last counted
+ *    them are exactly the tail of their course list.
+ *
+ * Topics covered:
+ *   1. Sparse matrices with per-row hash maps
+ *   2. Open addressing (a primitive int → int map, no boxing)
+ *   3. Thread-local accumulation + merge (map/reduce)
+ *   4. Top-N selection with a min-heap
+ *
+ * 🔗 SEE ALSO: p05_Collections/HashMapDemo.java
+ * 🔗 SEE ALSO: p08_LambdasAndStreams/StreamsDemo.java (parallel streams)
+ */
+package p07_Applications;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import p07_Applications.StudentManagementSystem.Department;
+import p07_Applications.StudentManagementSystem.Grade;
+import p07_Applications.StudentManagementSystem.Student;
+
+public class CoEnrollmentMatrix {
+
+    // =====================================================================
+    // IntIntCounter — open-addressing map from int key to int count
+    // =====================================================================
+
+    static final class IntIntCounter {
+        private static final int EMPTY = -1;
+        private int[] keys;
+        private int[] counts;
+        private int size;
+
+        IntIntCounter() {
+            keys = new int[8];
+            counts = new int[8];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        /** Adds delta to key's count; entries that reach zero stay as zero. */
+        void add(int key, int delta) {
+            int slot = slot(key);
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                if (++size * 4 > keys.length * 3) {
+                    counts[slot] = delta;
+                    grow();
+                    return;
+                }
+            }
+            counts[slot] += delta;
+        }
+
+        int get(int key) {
+            int slot = slot(key);
+            return keys[slot] == EMPTY ? 0 : counts[slot];
+        }
+
+        void forEach(IntIntConsumer action) {
+            for (int i = 0; i < keys.length; i++)
+                if (keys[i] != EMPTY && counts[i] != 0)
+                    action.accept(keys[i], counts[i]);
+        }
+
+        @FunctionalInterface
+        interface IntIntConsumer {
+            void accept(int key, int count);
+        }
+
+        private int slot(int key) {
+            int mask = keys.length - 1;
+            // Fibonacci hashing: the TOP log2(capacity) bits of the product are the well-mixed ones
+            int i = (key * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(mask);
+            while (keys[i] != EMPTY && keys[i] != key)
+                i = (i + 1) & mask;
+            return i;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new int[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+    }
+
+    record Conflict(String courseA, String courseB, int students) {
+        @Override
+        public String toString() {
+            return courseA + " × " + courseB + ": " + students;
+        }
+    }
+
+    // =====================================================================
+    // MATRIX
+    // =====================================================================
+
+    private final Map<String, Integer> courseIds = new HashMap<>();
+    private final List<String> courseNames = new ArrayList<>();
+    private IntIntCounter[] rows = new IntIntCounter[16];
+    /** How many of each student's courses (from the front) are already counted. */
+    private final Map<Student, Integer> counted = new HashMap<>();
+
+    /** Rebuilds from scratch: parallel chunks with local rows, then merge. */
+    void build(Collection<Student> students) {
+        counted.clear();
+        rows = new IntIntCounter[Math.max(16, rows.length)];
+        List<Student> list = new ArrayList<>(students);
+        List<int[]> courseLists = new ArrayList<>(list.size());
+        for (Student s : list) {
+            courseLists.add(idsOf(s.getCourses().keySet())); // interning is sequential
+            counted.put(s, s.getCourses().size());
+        }
+        int courseCount = courseNames.size();
+
+        int chunks = Math.max(1, Runtime.getRuntime().availableProcessors());
+        IntIntCounter[][] partials = new IntIntCounter[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            IntIntCounter[] local = new IntIntCounter[courseCount];
+            for (int i = c; i < courseLists.size(); i += chunks) {
+                int[] ids = courseLists.get(i);
+                for (int x = 0; x < ids.length; x++)
+                    for (int y = x + 1; y < ids.length; y++)
+                        addPair(local, ids[x], ids[y], 1);
+            }
+            partials[c] = local;
+        });
+
+        // Merge: each row of the result is independent, so merge rows in parallel too
+        IntIntCounter[] merged = new IntIntCounter[Math.max(courseCount, 16)];
+        IntStream.range(0, courseCount).parallel().forEach(row -> {
+            IntIntCounter target = null;
+            for (IntIntCounter[] local : partials) {
+                if (local[row] == null)
+                    continue;
+                if (target == null)
+                    target = new IntIntCounter();
+                IntIntCounter t = target;
+                local[row].forEach(t::add);
+            }
+            merged[row] = target;
+        });
+        rows = merged;
+    }
+
+    /** Counts the pairs involving courses the student gained since last time. */
+    void update(Student student) {
+        List<String> courses = new ArrayList<>(student.getCourses().keySet());
+        int already = counted.getOrDefault(student, 0);
+        if (already == courses.size())
+            return; // only a grade changed
+        int[] ids = idsOf(courses);
+        ensureRows();
+        for (int n = already; n < ids.length; n++)
+            for (int o = 0; o < n; o++)
+                addPair(rows, ids[n], ids[o], 1);
+        counted.put(student, ids.length);
+    }
+
+    void add(Student student) {
+        update(student);
+    }
+
+    void remove(Student student) {
+        Integer already = counted.remove(student);
+        if (already == null)
+            return;
+        int[] ids = idsOf(new ArrayList<>(student.getCourses().keySet()).subList(0, already));
+        for (int x = 0; x < ids.length; x++)
+            for (int y = x + 1; y < ids.length; y++)
+                addPair(rows, ids[x], ids[y], -1);
+    }
+
+    // ── Queries ──
+
+    int count(String a, String b) {
+        Integer x = courseIds.get(a);
+        Integer y = courseIds.get(b);
+        if (x == null || y == null || x.equals(y) || rows[x] == null)
+            return 0;
+        return rows[x].get(y);
+    }
+
+    /** The n course pairs shared by the most students. */
+    List<Conflict> topConflicts(int n) {
+        PriorityQueue<Conflict> best = new PriorityQueue<>(Comparator.comparingInt(Conflict::students));
+        for (int a = 0; a < courseNames.size(); a++) {
+            if (rows[a] == null)
+                continue;
+            int rowA = a;
+            rows[a].forEach((b, count) -> {
+                if (b > rowA)
+                    offer(best, n, new Conflict(courseNames.get(rowA), courseNames.get(b), count));
+            });
+        }
+        return drain(best);
+    }
+
+    /** The n courses that clash most with the given course. */
+    List<Conflict> topConflictsFor(String course, int n) {
+        Integer a = courseIds.get(course);
+        PriorityQueue<Conflict> best = new PriorityQueue<>(Comparator.comparingInt(Conflict::students));
+        if (a != null && rows[a] != null)
+            rows[a].forEach((b, count) -> offer(best, n, new Conflict(course, courseNames.get(b), count)));
+        return drain(best);
+    }
+
+    // ── plumbing ──
+
+    private static void addPair(IntIntCounter[] target, int a, int b, int delta) {
+        if (a == b)
+            return;
+        row(target, a).add(b, delta);
+        row(target, b).add(a, delta);
+    }
+
+    private static IntIntCounter row(IntIntCounter[] target, int course) {
+        IntIntCounter r = target[course];
+        if (r == null)
+            r = target[course] = new IntIntCounter();
+        return r;
+    }
+
+    private int[] idsOf(Collection<String> courses) {
+        int[] ids = new int[courses.size()];
+        int i = 0;
+        for (String c : courses) {
+            ids[i++] = courseIds.computeIfAbsent(c, k -> {
+                courseNames.add(k);
+                return courseNames.size() - 1;
+            });
+        }
+        return ids;
+    }
+
+    private void ensureRows() {
+        if (rows.length < courseNames.size())
+            rows = Arrays.copyOf(rows, Math.max(courseNames.size(), rows.length * 2));
+    }
+
+    private static void offer(PriorityQueue<Conflict> best, int n, Conflict c) {
+        best.add(c);
+        if (best.size() > n)
+            best.poll();
+    }
+
+    private static List<Conflict> drain(PriorityQueue<Conflict> best) {
+        List<Conflict> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingInt(Conflict::students).reversed());
+        return result;
+    }
+
+    // =====================================================================
+    // MAIN — parallel build vs a single-threaded naive loop
+    // =====================================================================
+    public static void main(String[] args) throws StudentManagementSystem.StudentException {
+        StudentManagementSystem.StudentRepository repo = new StudentManagementSystem.StudentRepository();
+        Random random = new Random(9);
+        Grade[] grades = Grade.values();
+        Department[] depts = Department.values();
+        for (int i = 0; i < 100_000; i++) {
+            Student s = new Student("Student " + i, depts[i % depts.length]);
+            int year = random.nextInt(4);
+            for (int c = 0; c < 10; c++)
+                s.addCourse("Y" + year + "-C" + random.nextInt(60), grades[random.nextInt(grades.length)]);
+            repo.add(s);
+        }
+
+        long start = System.nanoTime();
+        Map<String, Integer> naive = new HashMap<>();
+        for (Student s : repo.getAll()) {
+            List<String> cs = new ArrayList<>(s.getCourses().keySet());
+            for (int x = 0; x < cs.size(); x++)
+                for (int y = x + 1; y < cs.size(); y++) {
+                    String a = cs.get(x), b = cs.get(y);
+                    naive.merge(a.compareTo(b) < 0 ? a + "|" + b : b + "|" + a, 1, Integer::sum);
+                }
+        }
+        System.out.printf("Naive single-thread HashMap<String,Integer>: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+        start = System.nanoTime();
+        repo.rebuildCoEnrollment();
+        System.out.printf("Parallel sparse build:                      %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+        System.out.println("Top 5 clashes: " + repo.topExamConflicts(5));
+        String course = repo.getAll().get(0).getCourses().keySet().iterator().next();
+        System.out.println("Worst clashes with " + course + ": " + repo.coEnrollment().topConflictsFor(course, 3));
+
+        Student s = repo.getAll().get(0);
+        int before = repo.coEnrollment().count(course, "Y9-NEW");
+        s.addCourse("Y9-NEW", Grade.A);
+        System.out.println("Incremental: " + course + " × Y9-NEW went " + before + " → "
+                + repo.coEnrollment().count(course, "Y9-NEW"));
+    }
+}
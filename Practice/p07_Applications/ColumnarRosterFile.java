@@ -0,0 +1,509 @@
+/**
+ * ColumnarRosterFile.java — Column-Oriented Roster Archive with Zone Maps
+ * =========================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: A CSV file is stored ROW by row: to read just the GPA you
+ *    still have to parse every name and course. A COLUMNAR file stores each
+ *    field's values together — all ids, then all names, then all GPAs — so
+ *    a query touching two columns reads only those two.
+ *
+ *    Rows are grouped into ROW GROUPS (4096 rows). For each group the footer
+ *    records a ZONE MAP: min/max GPA and which departments occur. A query
+ *    like "CSE students with GPA ≥ 3.8" can SKIP whole row groups without
+ *    reading them when the zone map proves nothing inside can match.
+ *
+ *    Column encodings:
+ *      ID          delta from previous id, as a varint (ids are nearly sorted)
+ *      NAME        modified-UTF strings
+ *      DEPARTMENT  dictionary code, bit-packed (5 departments → 3 bits each)
+ *      GPA         8-byte double
+ *      ENROLLED    epoch day as varint
+ *      COURSES     per row: count, then (course dictionary code varint, grade 4 bits)
+ *
+ *    File layout:
+ *      magic | row group column chunks ... | footer | footer length | magic
+ *
+ * Topics covered:
+ *   1. Row vs column storage
+ *   2. Dictionary encoding, bit packing, varints
+ *   3. Predicate push-down and zone maps (a.k.a. min/max statistics)
+ *   4. FileChannel positional reads of just the bytes you need
+ *
+ * 🔗 SEE ALSO: p07_Applications/StudentExporter.java (row-oriented CSV/binary)
+ * 🔗 SEE ALSO: p06_FileIO/FileReadWrite.java
+ */
+package p07_Applications;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import p07_Applications.StudentManagementSystem.Department;
+import p07_Applications.StudentManagementSystem.Grade;
+import p07_Applications.StudentManagementSystem.StudentRecord;
+
+public class ColumnarRosterFile {
+
+    static final int MAGIC = 0x53434F4C; // "SCOL"
+    static final int ROW_GROUP_SIZE = 4096;
+    static final int GRADE_BITS = 4;
+
+    enum Column {
+        ID, NAME, DEPARTMENT, GPA, ENROLLED, COURSES
+    }
+
+    /** Footer entry for one row group. */
+    static final class RowGroupMeta {
+        int rows;
+        int firstId;
+        double minGPA = Double.POSITIVE_INFINITY;
+        double maxGPA = Double.NEGATIVE_INFINITY;
+        int departmentMask; // bit i set → dictionary code i occurs
+        final long[] offsets = new long[Column.values().length];
+        final int[] lengths = new int[Column.values().length];
+    }
+
+    // =====================================================================
+    // BIT / VARINT HELPERS
+    // =====================================================================
+
+    static final class BitWriter {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private long buffer;
+        private int bits;
+
+        void write(int value, int width) {
+            buffer |= ((long) value & ((1L << width) - 1)) << bits;
+            bits += width;
+            while (bits >= 8) {
+                out.write((int) buffer);
+                buffer >>>= 8;
+                bits -= 8;
+            }
+        }
+
+        byte[] toByteArray() {
+            if (bits > 0) {
+                out.write((int) buffer);
+                buffer = 0;
+                bits = 0;
+            }
+            return out.toByteArray();
+        }
+    }
+
+    static final class BitReader {
+        private final byte[] data;
+        private int bytePos;
+        private long buffer;
+        private int bits;
+
+        BitReader(byte[] data, int start) {
+            this.data = data;
+            this.bytePos = start;
+        }
+
+        int read(int width) {
+            while (bits < width) {
+                buffer |= (long) (data[bytePos++] & 0xFF) << bits;
+                bits += 8;
+            }
+            int value = (int) (buffer & ((1L << width) - 1));
+            buffer >>>= width;
+            bits -= width;
+            return value;
+        }
+    }
+
+    static void writeVarint(DataOutput out, long value) throws IOException {
+        // zig-zag so small negative deltas stay small
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    static long readVarint(DataInput in) throws IOException {
+        long v = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    static int bitsFor(int distinctValues) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, distinctValues - 1)));
+    }
+
+    static double gpaOf(StudentRecord r) {
+        if (r.courses().isEmpty())
+            return 0.0;
+        double sum = 0;
+        for (Grade g : r.courses().values())
+            sum += g.getPoints();
+        return sum / r.courses().size();
+    }
+
+    // =====================================================================
+    // WRITER
+    // =====================================================================
+
+    /**
+     * Writes the roster column by column. onRowGroup receives the number of
+     * rows in each finished group (for progress reporting).
+     */
+    static void write(List<StudentRecord> rows, Path file, IntConsumer onRowGroup) throws IOException {
+        List<String> departments = new ArrayList<>();
+        Map<String, Integer> departmentCodes = new HashMap<>();
+        for (Department d : Department.values()) {
+            departmentCodes.put(d.name(), departments.size());
+            departments.add(d.name());
+        }
+        List<String> courses = new ArrayList<>();
+        Map<String, Integer> courseCodes = new HashMap<>();
+        List<RowGroupMeta> groups = new ArrayList<>();
+        int departmentBits = bitsFor(departments.size());
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = writeAll(channel, 0, ByteBuffer.allocate(4).putInt(MAGIC).flip());
+
+            for (int start = 0; start < rows.size(); start += ROW_GROUP_SIZE) {
+                if (Thread.currentThread().isInterrupted())
+                    return;
+                List<StudentRecord> group = rows.subList(start, Math.min(rows.size(), start + ROW_GROUP_SIZE));
+                RowGroupMeta meta = new RowGroupMeta();
+                meta.rows = group.size();
+                meta.firstId = group.get(0).id();
+
+                ByteArrayOutputStream[] chunks = new ByteArrayOutputStream[Column.values().length];
+                DataOutputStream[] outs = new DataOutputStream[chunks.length];
+                for (int c = 0; c < chunks.length; c++) {
+                    chunks[c] = new ByteArrayOutputStream();
+                    outs[c] = new DataOutputStream(chunks[c]);
+                }
+                BitWriter deptBits = new BitWriter();
+                int previousId = meta.firstId;
+
+                for (StudentRecord r : group) {
+                    writeVarint(outs[Column.ID.ordinal()], r.id() - previousId);
+                    previousId = r.id();
+                    outs[Column.NAME.ordinal()].writeUTF(r.name());
+
+                    int code = departmentCodes.get(r.department().name());
+                    deptBits.write(code, departmentBits);
+                    meta.departmentMask |= 1 << code;
+
+                    double gpa = gpaOf(r);
+                    outs[Column.GPA.ordinal()].writeDouble(gpa);
+                    meta.minGPA = Math.min(meta.minGPA, gpa);
+                    meta.maxGPA = Math.max(meta.maxGPA, gpa);
+
+                    writeVarint(outs[Column.ENROLLED.ordinal()], r.enrollmentDate().toEpochDay());
+
+                    DataOutputStream c = outs[Column.COURSES.ordinal()];
+                    writeVarint(c, r.courses().size());
+                    BitWriter gradeBits = new BitWriter();
+                    for (Map.Entry<String, Grade> e : r.courses().entrySet()) {
+                        Integer courseCode = courseCodes.get(e.getKey());
+                        if (courseCode == null) {
+                            courseCode = courses.size();
+                            courseCodes.put(e.getKey(), courseCode);
+                            courses.add(e.getKey());
+                        }
+                        writeVarint(c, courseCode);
+                        gradeBits.write(e.getValue().ordinal(), GRADE_BITS);
+                    }
+                    c.write(gradeBits.toByteArray());
+                }
+                outs[Column.DEPARTMENT.ordinal()].write(deptBits.toByteArray());
+
+                for (Column col : Column.values()) {
+                    byte[] bytes = chunks[col.ordinal()].toByteArray();
+                    meta.offsets[col.ordinal()] = position;
+                    meta.lengths[col.ordinal()] = bytes.length;
+                    position = writeAll(channel, position, ByteBuffer.wrap(bytes));
+                }
+                groups.add(meta);
+                onRowGroup.accept(group.size());
+            }
+
+            // Footer: dictionaries + zone maps + chunk locations
+            ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+            DataOutputStream footer = new DataOutputStream(footerBytes);
+            footer.writeInt(departments.size());
+            for (String d : departments)
+                footer.writeUTF(d);
+            footer.writeInt(courses.size());
+            for (String c : courses)
+                footer.writeUTF(c);
+            footer.writeInt(groups.size());
+            for (RowGroupMeta g : groups) {
+                footer.writeInt(g.rows);
+                footer.writeInt(g.firstId);
+                footer.writeDouble(g.minGPA);
+                footer.writeDouble(g.maxGPA);
+                footer.writeInt(g.departmentMask);
+                for (int c = 0; c < g.offsets.length; c++) {
+                    footer.writeLong(g.offsets[c]);
+                    footer.writeInt(g.lengths[c]);
+                }
+            }
+            footer.writeInt(footerBytes.size());
+            footer.writeInt(MAGIC);
+            writeAll(channel, position, ByteBuffer.wrap(footerBytes.toByteArray()));
+        }
+    }
+
+    private static long writeAll(FileChannel channel, long position, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining())
+            position += channel.write(buf, position);
+        return position;
+    }
+
+    // =====================================================================
+    // READER
+    // =====================================================================
+
+    /** A pushed-down filter plus the columns the caller actually needs. */
+    record Query(double minGPA, double maxGPA, Set<Department> departments, Set<Column> columns) {
+        static Query all() {
+            return new Query(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                    EnumSet.allOf(Department.class), EnumSet.allOf(Column.class));
+        }
+    }
+
+    /** One matching row; columns that were not requested are null / 0. */
+    record Row(int id, String name, Department department, double gpa, LocalDate enrollmentDate,
+            Map<String, Grade> courses) {
+    }
+
+    static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final List<String> departments = new ArrayList<>();
+        private final List<String> courses = new ArrayList<>();
+        private final List<RowGroupMeta> groups = new ArrayList<>();
+        private long groupsScanned;
+        private long groupsSkipped;
+        private long bytesRead;
+
+        Reader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            long size = channel.size();
+            ByteBuffer tail = read(size - 8, 8);
+            int footerLength = tail.getInt();
+            if (tail.getInt() != MAGIC)
+                throw new IOException("Not a columnar roster file: " + file);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                    read(size - 8 - footerLength, footerLength).array()));
+            int d = in.readInt();
+            for (int i = 0; i < d; i++)
+                departments.add(in.readUTF());
+            int c = in.readInt();
+            for (int i = 0; i < c; i++)
+                courses.add(in.readUTF());
+            int g = in.readInt();
+            for (int i = 0; i < g; i++) {
+                RowGroupMeta meta = new RowGroupMeta();
+                meta.rows = in.readInt();
+                meta.firstId = in.readInt();
+                meta.minGPA = in.readDouble();
+                meta.maxGPA = in.readDouble();
+                meta.departmentMask = in.readInt();
+                for (int col = 0; col < meta.offsets.length; col++) {
+                    meta.offsets[col] = in.readLong();
+                    meta.lengths[col] = in.readInt();
+                }
+                groups.add(meta);
+            }
+        }
+
+        /** Streams matching rows to the consumer, skipping row groups via zone maps. */
+        void scan(Query q, Consumer<Row> consumer) throws IOException {
+            int wantedMask = 0;
+            for (int code = 0; code < departments.size(); code++)
+                if (q.departments().contains(Department.valueOf(departments.get(code))))
+                    wantedMask |= 1 << code;
+
+            for (RowGroupMeta g : groups) {
+                if (g.maxGPA < q.minGPA() || g.minGPA > q.maxGPA() || (g.departmentMask & wantedMask) == 0) {
+                    groupsSkipped++;
+                    continue;
+                }
+                groupsScanned++;
+                scanGroup(g, q, wantedMask, consumer);
+            }
+        }
+
+        private void scanGroup(RowGroupMeta g, Query q, int wantedMask, Consumer<Row> consumer)
+                throws IOException {
+            // Filter columns first; decide which rows survive before touching the rest
+            BitReader dept = new BitReader(chunk(g, Column.DEPARTMENT), 0);
+            DataInputStream gpa = stream(g, Column.GPA);
+            int bits = bitsFor(departments.size());
+            int[] deptCodes = new int[g.rows];
+            double[] gpas = new double[g.rows];
+            boolean[] match = new boolean[g.rows];
+            int matches = 0;
+            for (int i = 0; i < g.rows; i++) {
+                deptCodes[i] = dept.read(bits);
+                gpas[i] = gpa.readDouble();
+                match[i] = (wantedMask & (1 << deptCodes[i])) != 0
+                        && gpas[i] >= q.minGPA() && gpas[i] <= q.maxGPA();
+                if (match[i])
+                    matches++;
+            }
+            if (matches == 0)
+                return;
+
+            Set<Column> cols = q.columns();
+            DataInputStream ids = cols.contains(Column.ID) ? stream(g, Column.ID) : null;
+            DataInputStream names = cols.contains(Column.NAME) ? stream(g, Column.NAME) : null;
+            DataInputStream enrolled = cols.contains(Column.ENROLLED) ? stream(g, Column.ENROLLED) : null;
+            DataInputStream courseData = cols.contains(Column.COURSES) ? stream(g, Column.COURSES) : null;
+            Grade[] grades = Grade.values();
+            int id = g.firstId;
+
+            for (int i = 0; i < g.rows; i++) {
+                // Variable-width columns must be decoded in order even for skipped rows
+                if (ids != null)
+                    id += (int) readVarint(ids);
+                String name = names != null ? names.readUTF() : null;
+                LocalDate date = enrolled != null ? LocalDate.ofEpochDay(readVarint(enrolled)) : null;
+                Map<String, Grade> courseMap = null;
+                if (courseData != null) {
+                    int n = (int) readVarint(courseData);
+                    int[] codes = new int[n];
+                    for (int k = 0; k < n; k++)
+                        codes[k] = (int) readVarint(courseData);
+                    byte[] packed = new byte[(n * GRADE_BITS + 7) / 8];
+                    courseData.readFully(packed);
+                    if (match[i]) {
+                        courseMap = new LinkedHashMap<>();
+                        BitReader gradeBits = new BitReader(packed, 0);
+                        for (int k = 0; k < n; k++)
+                            courseMap.put(courses.get(codes[k]), grades[gradeBits.read(GRADE_BITS)]);
+                    }
+                }
+                if (match[i]) {
+                    consumer.accept(new Row(ids != null ? id : 0, name,
+                            Department.valueOf(departments.get(deptCodes[i])), gpas[i], date, courseMap));
+                }
+            }
+        }
+
+        long groupsScanned() {
+            return groupsScanned;
+        }
+
+        long groupsSkipped() {
+            return groupsSkipped;
+        }
+
+        long bytesRead() {
+            return bytesRead;
+        }
+
+        int rowGroups() {
+            return groups.size();
+        }
+
+        private byte[] chunk(RowGroupMeta g, Column col) throws IOException {
+            return read(g.offsets[col.ordinal()], g.lengths[col.ordinal()]).array();
+        }
+
+        private DataInputStream stream(RowGroupMeta g, Column col) throws IOException {
+            return new DataInputStream(new ByteArrayInputStream(chunk(g, col)));
+        }
+
+        private ByteBuffer read(long position, int length) throws IOException {
+            ByteBuffer buf = ByteBuffer.allocate(length);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, position + buf.position()) < 0)
+                    throw new EOFException();
+            }
+            bytesRead += length;
+            return buf.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // =====================================================================
+    // MAIN — columnar scan with push-down vs parsing the CSV
+    // =====================================================================
+    public static void main(String[] args) throws Exception {
+        // A historical roster sorted by GPA band, as archives often are (e.g. by term results)
+        Random random = new Random(21);
+        Department[] depts = Department.values();
+        Grade[] grades = Grade.values();
+        List<StudentRecord> rows = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            Map<String, Grade> courses = new LinkedHashMap<>();
+            int band = i * grades.length / 200_000; // later rows have lower grades
+            for (int c = 0; c < 6; c++)
+                courses.put("C" + random.nextInt(80), grades[Math.min(grades.length - 1, band + random.nextInt(2))]);
+            rows.add(new StudentRecord(10_000 + i, "Student " + i, depts[(i / 20_000) % depts.length], courses,
+                    LocalDate.of(2018, 1, 1).plusDays(random.nextInt(2_500))));
+        }
+
+        Path dir = Files.createTempDirectory("columnar-demo");
+        Path colFile = dir.resolve("roster.scol");
+        Path csvFile = dir.resolve("roster.csv");
+        write(rows, colFile, n -> {
+        });
+        List<String> csvLines = new ArrayList<>();
+        for (StudentRecord r : rows)
+            csvLines.add(r.toCSV());
+        Files.write(csvFile, csvLines);
+        System.out.printf("CSV: %,d bytes   columnar: %,d bytes%n", Files.size(csvFile), Files.size(colFile));
+
+        // Query: CSE students with GPA ≥ 3.7 — only need department + GPA
+        long start = System.nanoTime();
+        int csvMatches = 0;
+        for (String line : Files.readAllLines(csvFile)) {
+            String[] f = line.split(",", -1);
+            if (!f[2].equals("CSE"))
+                continue;
+            double sum = 0;
+            int n = 0;
+            for (String course : f[3].split(";")) {
+                if (course.isEmpty())
+                    continue;
+                sum += Grade.valueOf(course.substring(course.indexOf('=') + 1)).getPoints();
+                n++;
+            }
+            if (n > 0 && sum / n >= 3.7)
+                csvMatches++;
+        }
+        System.out.printf("CSV parse:      %d matches in %.1f ms%n", csvMatches, (System.nanoTime() - start) / 1e6);
+
+        start = System.nanoTime();
+        int[] colMatches = new int[1];
+        try (Reader reader = new Reader(colFile)) {
+            reader.scan(new Query(3.7, Double.POSITIVE_INFINITY, EnumSet.of(Department.CSE),
+                    EnumSet.of(Column.DEPARTMENT, Column.GPA)), row -> colMatches[0]++);
+            System.out.printf("Columnar scan:  %d matches in %.1f ms (%d of %d row groups skipped, %,d bytes read)%n",
+                    colMatches[0], (System.nanoTime() - start) / 1e6, reader.groupsSkipped(), reader.rowGroups(),
+                    reader.bytesRead());
+        }
+        Files.delete(colFile);
+        Files.delete(csvFile);
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,441 @@
+/**
+ * DecimalEvaluator.java — Exact Decimal Arithmetic for Money, Fast When Possible
+ * ===============================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: double is BINARY. 0.1 has no exact binary form, so
+ *    0.1 + 0.2 = 0.30000000000000004 — unacceptable for money. BigDecimal
+ *    is exact in decimal, but every operation allocates objects and runs
+ *    general-purpose code, which is much slower.
+ *
+ *    Most money values are small decimals like 19.99. BigDecimal itself
+ *    stores those as (unscaled long, scale) — 19.99 is (1999, 2) — and we
+ *    can do the same math on plain longs:
+ *
+ *        19.99 + 0.5     align scales:  1999 + 50   → (2049, 2) = 20.49
+ *        19.99 × 3       multiply:      1999 × 3    → (5997, 2) = 59.97
+ *        10 / 4          find k with 10·10^k divisible by 4 → (25, 1) = 2.5
+ *
+ *    Every step uses Math.addExact / multiplyExact, so overflow is DETECTED,
+ *    never silent. The evaluator takes this FAST PATH whenever the operands
+ *    fit and the exact result fits the MathContext precision, and falls
+ *    back to BigDecimal (rounded by the MathContext) otherwise — e.g. for
+ *    1/3, or numbers too big for a long.
+ *
+ *    Variable values are converted to (unscaled, scale) ONCE per evaluate(),
+ *    before the tree is walked, so a variable read is three field copies.
+ *    Values of up to 15 digits are converted through doubleValue() exactly
+ *    like literals below, which allocates nothing.
+ *
+ *    Literals: the AST stores literals as doubles. A literal with at most
+ *    15 significant digits maps to a unique double, so the decimal you typed
+ *    is recovered exactly (0.1 → (1, 1), not 0.1000000000000000055…).
+ *
+ *    sin, cos, tan, ln, log, exp and non-integer powers have no finite
+ *    decimal answer; they are computed in double precision and converted.
+ *    So are user operators and functions from an OperatorRegistry — they
+ *    are only defined on doubles.
+ *
+ * Topics covered:
+ *   1. BigDecimal, MathContext, RoundingMode
+ *   2. Scaled-long (fixed-point) arithmetic with overflow detection
+ *   3. Fast path + exact fallback
+ *
+ * 🔗 SEE ALSO: p07_Applications/ExpressionEngine.java
+ * 🔗 SEE ALSO: p02_OOP/EnumDemo.java (double-based Operation)
+ */
+package p07_Applications;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.*;
+
+import p07_Applications.ExpressionEngine.*;
+
+public class DecimalEvaluator {
+
+    private static final long[] POW10 = new long[19];
+    private static final double[] POW10_DOUBLE = new double[16];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++)
+            POW10[i] = POW10[i - 1] * 10;
+        for (int i = 0; i < POW10_DOUBLE.length; i++)
+            POW10_DOUBLE[i] = POW10[i];
+    }
+
+    private final MathContext mc;
+    private final boolean fastPath;
+
+    // Result registers of the last eval(): either big != null, or (unscaled, scale)
+    private long unscaled;
+    private int scale;
+    private BigDecimal big;
+
+    // Variable values for the current evaluation; on the fast path also as (unscaled, scale)
+    private BigDecimal[] values;
+    private long[] valueUnscaled = new long[0];
+    private int[] valueScale = new int[0];
+    private boolean[] valueCompact = new boolean[0];
+
+    private long fastOps;
+    private long slowOps;
+
+    DecimalEvaluator(MathContext mc) {
+        this(mc, true);
+    }
+
+    /** fastPath = false forces BigDecimal everywhere (for benchmarking). */
+    DecimalEvaluator(MathContext mc, boolean fastPath) {
+        this.mc = mc;
+        this.fastPath = fastPath;
+    }
+
+    MathContext getMathContext() {
+        return mc;
+    }
+
+    /** Evaluates e exactly, rounding to the MathContext only where needed. Not thread-safe. */
+    BigDecimal evaluate(Expression e, BigDecimal... variableValues) {
+        if (variableValues.length < e.getVariables().size())
+            throw new IllegalArgumentException("Expected " + e.getVariables().size() + " values for "
+                    + e.getVariables());
+        values = variableValues;
+        if (fastPath)
+            compactValues(e.getVariables().size());
+        eval(e.getRoot());
+        values = null;
+        return big != null ? big : BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /** Operations done on longs vs on BigDecimal since creation. */
+    String stats() {
+        return String.format("fast %,d, BigDecimal %,d", fastOps, slowOps);
+    }
+
+    // =====================================================================
+    // EVALUATION
+    // =====================================================================
+
+    private void eval(Node node) {
+        if (node instanceof Num n) {
+            literal(n.value());
+        } else if (node instanceof Var v) {
+            int i = v.slot();
+            if (fastPath && valueCompact[i]) {
+                big = null;
+                unscaled = valueUnscaled[i];
+                scale = valueScale[i];
+            } else {
+                setBig(values[i]);
+            }
+        } else if (node instanceof Neg neg) {
+            eval(neg.operand());
+            if (big == null && unscaled != Long.MIN_VALUE) {
+                unscaled = -unscaled;
+                fastOps++;
+            } else {
+                setBig(current().negate(mc));
+            }
+        } else if (node instanceof Binary b && !b.operator().builtin()) {
+            eval(b.left());
+            BigDecimal a = current();
+            eval(b.right());
+            slowOps++;
+            setBig(viaDouble(b.operator().toString(), b.operator().function().applyAsDouble(a.doubleValue(),
+                    current().doubleValue()), a));
+            if (fastPath)
+                tryCompact();
+        } else if (node instanceof Binary b) {
+            eval(b.left());
+            long lu = unscaled;
+            int ls = scale;
+            BigDecimal lb = big;
+            eval(b.right());
+            if (lb == null && big == null && binaryFast(b.op(), lu, ls, unscaled, scale)) {
+                fastOps++;
+                return;
+            }
+            binarySlow(b.op(), lb != null ? lb : BigDecimal.valueOf(lu, ls), current());
+        } else {
+            call((Call) node);
+        }
+    }
+
+    /** Recovers the typed decimal from its double without allocating. */
+    private void literal(double d) {
+        if (fastPath) {
+            for (int s = 0; s < POW10_DOUBLE.length; s++) {
+                double r = Math.rint(d * POW10_DOUBLE[s]);
+                if (Math.abs(r) >= 1e15)
+                    break;
+                if (r / POW10_DOUBLE[s] == d) {
+                    big = null;
+                    unscaled = (long) r;
+                    scale = s;
+                    return;
+                }
+            }
+        }
+        setBig(BigDecimal.valueOf(d));
+    }
+
+    /** Converts the first n variable values to (unscaled, scale) where they fit a long. */
+    private void compactValues(int n) {
+        if (valueCompact.length < n) {
+            valueUnscaled = new long[n];
+            valueScale = new int[n];
+            valueCompact = new boolean[n];
+        }
+        for (int i = 0; i < n; i++) {
+            BigDecimal v = values[i];
+            int s = v.scale();
+            valueScale[i] = s;
+            valueCompact[i] = true;
+            if (s >= 0 && s < POW10_DOUBLE.length) {
+                // < 10^15 unscaled: the double is unique to this decimal, so the digits come back exactly
+                double d = v.doubleValue();
+                double r = Math.rint(d * POW10_DOUBLE[s]);
+                if (Math.abs(r) < 1e15 && r / POW10_DOUBLE[s] == d) {
+                    valueUnscaled[i] = (long) r;
+                    continue;
+                }
+            }
+            if (v.precision() <= 18)
+                valueUnscaled[i] = v.unscaledValue().longValue();
+            else
+                valueCompact[i] = false;
+        }
+    }
+
+    /** Computes into the registers and returns true, or returns false to fall back. */
+    private boolean binaryFast(char op, long lu, int ls, long ru, int rs) {
+        try {
+            switch (op) {
+                case '+', '-' -> {
+                    int s = Math.max(ls, rs);
+                    long a = rescale(lu, s - ls);
+                    long b = rescale(ru, s - rs);
+                    if (a == Long.MIN_VALUE || b == Long.MIN_VALUE)
+                        return false;
+                    return result(op == '+' ? Math.addExact(a, b) : Math.subtractExact(a, b), s);
+                }
+                case '*' -> {
+                    return result(Math.multiplyExact(lu, ru), ls + rs);
+                }
+                case '/' -> {
+                    if (ru == 0)
+                        return false; // let BigDecimal throw
+                    // smallest k with lu·10^k divisible by ru gives an exact, shortest quotient
+                    for (int k = 0; k < POW10.length; k++) {
+                        long numerator = Math.multiplyExact(lu, POW10[k]);
+                        if (numerator % ru == 0)
+                            return result(numerator / ru, ls - rs + k);
+                    }
+                    return false; // non-terminating (1/3) or too long
+                }
+                case '%' -> {
+                    if (ru == 0)
+                        return false;
+                    int s = Math.max(ls, rs);
+                    long a = rescale(lu, s - ls);
+                    long b = rescale(ru, s - rs);
+                    if (a == Long.MIN_VALUE || b == Long.MIN_VALUE)
+                        return false;
+                    return result(a % b, s);
+                }
+                case '^' -> {
+                    if (rs != 0 || ru < 0 || ru > 64)
+                        return false;
+                    long p = 1;
+                    for (int i = 0; i < ru; i++)
+                        p = Math.multiplyExact(p, lu);
+                    return result(p, Math.multiplyExact(ls, (int) ru));
+                }
+                default -> {
+                    return false;
+                }
+            }
+        } catch (ArithmeticException overflow) {
+            return false;
+        }
+    }
+
+    /** unscaled · 10^digits, or Long.MIN_VALUE on overflow. */
+    private static long rescale(long value, int digits) {
+        if (digits == 0)
+            return value;
+        if (digits >= POW10.length)
+            return Long.MIN_VALUE;
+        long hi = Math.multiplyHigh(value, POW10[digits]);
+        long lo = value * POW10[digits];
+        return (hi == 0 && lo >= 0) || (hi == -1 && lo < 0) ? lo : Long.MIN_VALUE;
+    }
+
+    /** Accepts an exact long result only if it needs no rounding under mc. */
+    private boolean result(long value, int newScale) {
+        if (mc.getPrecision() > 0 && mc.getPrecision() < 19 && digits(value) > mc.getPrecision())
+            return false;
+        big = null;
+        unscaled = value;
+        scale = newScale;
+        return true;
+    }
+
+    private static int digits(long value) {
+        if (value == Long.MIN_VALUE)
+            return 19;
+        long v = Math.abs(value);
+        int d = 1;
+        while (d < POW10.length && v >= POW10[d])
+            d++;
+        return d;
+    }
+
+    private void binarySlow(char op, BigDecimal a, BigDecimal b) {
+        slowOps++;
+        switch (op) {
+            case '+' -> setBig(a.add(b, mc));
+            case '-' -> setBig(a.subtract(b, mc));
+            case '*' -> setBig(a.multiply(b, mc));
+            case '/' -> setBig(a.divide(b, mc));
+            case '%' -> setBig(a.remainder(b, mc));
+            case '^' -> setBig(power(a, b));
+            default -> throw new IllegalStateException("Unknown operator " + op);
+        }
+    }
+
+    private BigDecimal power(BigDecimal base, BigDecimal exponent) {
+        BigDecimal stripped = exponent.stripTrailingZeros();
+        if (stripped.scale() <= 0 && stripped.abs().compareTo(BigDecimal.valueOf(999_999_999)) <= 0) {
+            int n = stripped.intValueExact();
+            return n >= 0 ? base.pow(n, mc) : BigDecimal.ONE.divide(base.pow(-n, mc), mc);
+        }
+        return new BigDecimal(Math.pow(base.doubleValue(), exponent.doubleValue()), mc);
+    }
+
+    private void call(Call call) {
+        List<Node> args = call.args();
+        eval(args.get(0));
+        BigDecimal a = current();
+        slowOps++;
+        Function builtin = call.function().builtin();
+        if (builtin == null) { // user function: defined on doubles only
+            double b = 0.0;
+            if (args.size() == 2) {
+                eval(args.get(1));
+                b = current().doubleValue();
+            }
+            setBig(viaDouble(call.function().toString(), call.function().apply(a.doubleValue(), b), a));
+            if (fastPath)
+                tryCompact();
+            return;
+        }
+        switch (builtin) {
+            case ABS -> setBig(a.abs());
+            case FLOOR -> setBig(a.setScale(0, RoundingMode.FLOOR));
+            case CEIL -> setBig(a.setScale(0, RoundingMode.CEILING));
+            case ROUND -> setBig(a.setScale(0, RoundingMode.HALF_EVEN)); // matches Math.rint
+            case SQRT -> setBig(a.sqrt(mc));
+            case MIN, MAX -> {
+                eval(args.get(1));
+                BigDecimal b = current();
+                setBig(builtin == Function.MIN ? a.min(b) : a.max(b));
+            }
+            case POW -> {
+                eval(args.get(1));
+                setBig(power(a, current()));
+            }
+            default -> // transcendental: no finite decimal answer
+                setBig(viaDouble(builtin.toString(), builtin.apply(a.doubleValue(), 0.0), a));
+        }
+        if (fastPath)
+            tryCompact();
+    }
+
+    /** A result computed in double, rounded to the MathContext; NaN and infinity have no decimal form. */
+    private BigDecimal viaDouble(String name, double x, BigDecimal operand) {
+        if (Double.isNaN(x) || Double.isInfinite(x))
+            throw new ArithmeticException(name + " is undefined for " + operand.toPlainString());
+        return new BigDecimal(x, mc);
+    }
+
+    private BigDecimal current() {
+        return big != null ? big : BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private void setBig(BigDecimal value) {
+        big = value;
+    }
+
+    /** Moves a BigDecimal back onto the fast path if its unscaled value fits a long. */
+    private void tryCompact() {
+        if (big.precision() <= 18) {
+            unscaled = big.unscaledValue().longValue();
+            scale = big.scale();
+            big = null;
+        }
+    }
+
+    // =====================================================================
+    // MAIN — correctness, then fast path vs BigDecimal-only vs double
+    // =====================================================================
+    public static void main(String[] args) {
+        DecimalEvaluator decimal = new DecimalEvaluator(MathContext.DECIMAL64);
+        for (String s : new String[] { "0.1 + 0.2", "19.99 * 3", "1 / 3", "10 / 4", "2 ^ 100", "(1.1 - 1) * 10",
+                "sqrt(2)", "1e20 + 1" }) {
+            Expression e = ExpressionEngine.compile(s);
+            System.out.printf("%-16s double %-24s decimal %s%n", s, e.evaluate(), decimal.evaluate(e).toPlainString());
+        }
+
+        // An invoice line: price × quantity, minus discount, plus tax — over 1M rows
+        Expression invoice = ExpressionEngine.compile("(price * qty - discount) * (1 + tax)",
+                List.of("price", "qty", "discount", "tax"));
+        Random random = new Random(43);
+        int n = 1_000_000;
+        BigDecimal[][] rows = new BigDecimal[n][];
+        double[][] doubleRows = new double[n][];
+        for (int i = 0; i < n; i++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(100_000), 2);
+            BigDecimal qty = BigDecimal.valueOf(1 + random.nextInt(20));
+            BigDecimal discount = BigDecimal.valueOf(random.nextInt(500), 2);
+            BigDecimal tax = BigDecimal.valueOf(new int[] { 0, 5, 75, 15 }[random.nextInt(4)], 2);
+            rows[i] = new BigDecimal[] { price, qty, discount, tax };
+            doubleRows[i] = new double[] { price.doubleValue(), qty.doubleValue(), discount.doubleValue(),
+                    tax.doubleValue() };
+        }
+
+        DecimalEvaluator fast = new DecimalEvaluator(MathContext.DECIMAL128);
+        DecimalEvaluator slow = new DecimalEvaluator(MathContext.DECIMAL128, false);
+        long bestDouble = Long.MAX_VALUE, bestFast = Long.MAX_VALUE, bestSlow = Long.MAX_VALUE;
+        double doubleTotal = 0;
+        BigDecimal fastTotal = BigDecimal.ZERO, slowTotal = BigDecimal.ZERO;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            doubleTotal = 0;
+            for (double[] row : doubleRows)
+                doubleTotal += invoice.evaluate(row);
+            bestDouble = Math.min(bestDouble, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            fastTotal = BigDecimal.ZERO;
+            for (BigDecimal[] row : rows)
+                fastTotal = fastTotal.add(fast.evaluate(invoice, row));
+            bestFast = Math.min(bestFast, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            slowTotal = BigDecimal.ZERO;
+            for (BigDecimal[] row : rows)
+                slowTotal = slowTotal.add(slow.evaluate(invoice, row));
+            bestSlow = Math.min(bestSlow, System.nanoTime() - start);
+        }
+        System.out.printf("%nInvoice totals over %,d rows:%n", n);
+        System.out.printf("  double             %8.1f ms  total %s (binary rounding error)%n", bestDouble / 1e6,
+                new BigDecimal(doubleTotal).setScale(6, RoundingMode.HALF_EVEN).toPlainString());
+        System.out.printf("  decimal, fast path %8.1f ms  total %s  [%s]%n", bestFast / 1e6, fastTotal.toPlainString(),
+                fast.stats());
+        System.out.printf("  BigDecimal only    %8.1f ms  total %s%n", bestSlow / 1e6, slowTotal.toPlainString());
+        System.out.println("  exact totals agree: " + (fastTotal.compareTo(slowTotal) == 0));
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ * EnrollmentCohortIndex.java — Date-Range Queries over Student.enrollmentDate
+ * ============================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: "Who enrolled in Spring 2025?" is a RANGE question. A HashMap
+ *    can't answer it without scanning everything, but a TreeMap keeps its keys
+ *    SORTED, so subMap(from, to) jumps straight to the matching slice.
+ *
+ *    Keys are epoch days (LocalDate.toEpochDay() — days since 1970-01-01),
+ *    and each day's BUCKET holds its students plus running totals per
+ *    department (count and GPA sum). A cohort's statistics therefore only
+ *    add up a few bucket totals; nobody's GPA is recomputed.
+ *
+ *    The totals are maintained INCREMENTALLY: when a student's grade or
+ *    department changes, subtract what they contributed before and add
+ *    what they contribute now — O(1), however big the bucket.
+ *
+ *    ⚠️ GOTCHA: doing that with double sums drifts. GPAs like 3.1666… are
+ *       not exact doubles, so after thousands of updates the running sum no
+ *       longer equals the sum of the GPAs. The sums are kept as LONGS in
+ *       millionths of a grade point instead: each GPA is rounded once when
+ *       filed, and integer add/subtract is exact, so removing a student
+ *       takes back exactly what adding them put in.
+ *
+ * Topics covered:
+ *   1. TreeMap / NavigableMap range views (subMap, headMap)
+ *   2. java.time: LocalDate, epoch days, semesters as date ranges
+ *   3. Incrementally maintained aggregates (EnumMap of running sums)
+ *
+ * 🔗 SEE ALSO: p05_Collections/HashMapDemo.java (TreeMap)
+ * 🔗 SEE ALSO: p07_Applications/StudentManagementSystem.java
+ */
+package p07_Applications;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import p07_Applications.StudentManagementSystem.Department;
+import p07_Applications.StudentManagementSystem.Grade;
+import p07_Applications.StudentManagementSystem.Student;
+
+public class EnrollmentCohortIndex {
+
+    /** Semesters as month ranges: Spring Jan–Apr, Summer May–Aug, Fall Sep–Dec. */
+    enum Semester {
+        SPRING(1), SUMMER(5), FALL(9);
+
+        private final int firstMonth;
+
+        Semester(int firstMonth) {
+            this.firstMonth = firstMonth;
+        }
+
+        LocalDate start(int year) {
+            return LocalDate.of(year, firstMonth, 1);
+        }
+
+        /** Exclusive end date. */
+        LocalDate end(int year) {
+            return start(year).plusMonths(4);
+        }
+
+        static Semester of(LocalDate date) {
+            return values()[(date.getMonthValue() - 1) / 4];
+        }
+    }
+
+    /** GPA sums are stored in millionths of a grade point. */
+    static final long GPA_SCALE = 1_000_000;
+
+    /** Running totals for one department inside one bucket (or one cohort). */
+    static final class DepartmentTotals {
+        int count;
+        long gpaSum; // scaled by GPA_SCALE
+
+        double averageGPA() {
+            return count == 0 ? 0.0 : (double) gpaSum / GPA_SCALE / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d students, avg GPA %.2f", count, averageGPA());
+        }
+    }
+
+    private static final class Bucket {
+        final Set<Student> students = new LinkedHashSet<>();
+        final Map<Department, DepartmentTotals> totals = new EnumMap<>(Department.class);
+
+        DepartmentTotals totals(Department d) {
+            return totals.computeIfAbsent(d, k -> new DepartmentTotals());
+        }
+    }
+
+    /** What a student currently contributes, so it can be subtracted later. */
+    private record Filed(Department department, long gpa) {
+        static Filed of(Student s) {
+            return new Filed(s.getDepartment(), Math.round(s.getGPA() * GPA_SCALE));
+        }
+    }
+
+    private final NavigableMap<Long, Bucket> buckets = new TreeMap<>();
+    private final Map<Student, Filed> filed = new HashMap<>();
+
+    void add(Student student) {
+        Bucket b = buckets.computeIfAbsent(student.getEnrollmentDate().toEpochDay(), k -> new Bucket());
+        b.students.add(student);
+        Filed f = Filed.of(student);
+        filed.put(student, f);
+        contribute(b, f, +1);
+    }
+
+    void remove(Student student) {
+        Filed f = filed.remove(student);
+        if (f == null)
+            return;
+        long day = student.getEnrollmentDate().toEpochDay();
+        Bucket b = buckets.get(day);
+        b.students.remove(student);
+        contribute(b, f, -1);
+        if (b.students.isEmpty())
+            buckets.remove(day);
+    }
+
+    /** Moves the student's contribution after a GPA or department change. O(log buckets). */
+    void update(Student student) {
+        Filed f = filed.get(student);
+        if (f == null)
+            return;
+        Filed now = Filed.of(student);
+        if (now.equals(f))
+            return;
+        filed.put(student, now);
+        Bucket b = buckets.get(student.getEnrollmentDate().toEpochDay());
+        contribute(b, f, -1);
+        contribute(b, now, +1);
+    }
+
+    /** update() for a whole batch: one TreeMap lookup per enrollment day, not per student. */
+    void updateAll(Collection<Student> students) {
+        Map<Long, Bucket> seen = new HashMap<>();
+        for (Student student : students) {
+            Filed f = filed.get(student);
+            if (f == null)
+                continue;
+            Filed now = Filed.of(student);
+            if (now.equals(f))
+                continue;
+            filed.put(student, now);
+            Bucket b = seen.computeIfAbsent(student.getEnrollmentDate().toEpochDay(), buckets::get);
+            contribute(b, f, -1);
+            contribute(b, now, +1);
+        }
+    }
+
+    /** Adds (sign +1) or takes back (sign -1) one student's filed contribution. */
+    private static void contribute(Bucket b, Filed f, int sign) {
+        DepartmentTotals t = b.totals(f.department());
+        t.count += sign;
+        t.gpaSum += sign * f.gpa();
+    }
+
+    // ── Queries ──
+
+    /** Students enrolled in [from, toExclusive), in enrollment-date order. */
+    List<Student> enrolledBetween(LocalDate from, LocalDate toExclusive) {
+        return collect(range(from, toExclusive));
+    }
+
+    List<Student> enrolledBefore(LocalDate date) {
+        return collect(buckets.headMap(date.toEpochDay(), false));
+    }
+
+    List<Student> enrolledIn(Semester semester, int year) {
+        return enrolledBetween(semester.start(year), semester.end(year));
+    }
+
+    /** Per-department count and average GPA for a date range, from bucket totals. */
+    Map<Department, DepartmentTotals> cohortStats(LocalDate from, LocalDate toExclusive) {
+        Map<Department, DepartmentTotals> result = new EnumMap<>(Department.class);
+        for (Bucket b : range(from, toExclusive).values()) {
+            b.totals.forEach((d, t) -> {
+                if (t.count == 0)
+                    return;
+                DepartmentTotals sum = result.computeIfAbsent(d, k -> new DepartmentTotals());
+                sum.count += t.count;
+                sum.gpaSum += t.gpaSum;
+            });
+        }
+        return result;
+    }
+
+    Map<Department, DepartmentTotals> cohortStats(Semester semester, int year) {
+        return cohortStats(semester.start(year), semester.end(year));
+    }
+
+    private NavigableMap<Long, Bucket> range(LocalDate from, LocalDate toExclusive) {
+        if (from.isAfter(toExclusive))
+            throw new IllegalArgumentException("Date range starts after it ends: " + from + " > " + toExclusive);
+        return buckets.subMap(from.toEpochDay(), true, toExclusive.toEpochDay(), false);
+    }
+
+    private static List<Student> collect(NavigableMap<Long, Bucket> slice) {
+        List<Student> result = new ArrayList<>();
+        for (Bucket b : slice.values())
+            result.addAll(b.students);
+        return result;
+    }
+
+    // =====================================================================
+    // MAIN — six years of enrollments, semester cohorts
+    // =====================================================================
+    public static void main(String[] args) throws StudentManagementSystem.StudentException {
+        StudentManagementSystem.StudentRepository repo = new StudentManagementSystem.StudentRepository();
+        Random random = new Random(3);
+        Department[] depts = Department.values();
+        Grade[] grades = Grade.values();
+        LocalDate first = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < 60_000; i++) {
+            LocalDate enrolled = first.plusDays(random.nextInt(6 * 365));
+            Student s = new Student(100_000 + i, "Student " + i, depts[random.nextInt(depts.length)], enrolled);
+            for (int c = 0; c < 4; c++)
+                s.addCourse("C" + random.nextInt(50), grades[random.nextInt(grades.length)]);
+            repo.add(s);
+        }
+
+        long start = System.nanoTime();
+        Map<Department, DepartmentTotals> spring = repo.cohortStats(Semester.SPRING, 2025);
+        long indexed = System.nanoTime() - start;
+        System.out.printf("Spring 2025 cohort (%.3f ms from bucket totals):%n", indexed / 1e6);
+        spring.forEach((d, t) -> System.out.println("  " + d.name() + ": " + t));
+
+        LocalDate from = Semester.SPRING.start(2025), to = Semester.SPRING.end(2025);
+        start = System.nanoTime();
+        long scanned = repo.getAll().stream()
+                .filter(s -> !s.getEnrollmentDate().isBefore(from) && s.getEnrollmentDate().isBefore(to))
+                .count();
+        long scanNanos = System.nanoTime() - start;
+        int indexedCount = spring.values().stream().mapToInt(t -> t.count).sum();
+        System.out.printf("Full scan found %d students in %.3f ms — %s%n", scanned, scanNanos / 1e6,
+                scanned == indexedCount ? "matches the index" : "MISMATCH: index counted " + indexedCount);
+
+        System.out.println("Enrolled before 2021: " + repo.enrolledBefore(LocalDate.of(2021, 1, 1)).size());
+    }
+}
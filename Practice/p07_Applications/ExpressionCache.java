@@ -0,0 +1,312 @@
+/**
+ * ExpressionCache.java — Bounded, Concurrent Cache of Compiled Expressions
+ * =========================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: Most calculator traffic is the same few formulas with
+ *    different numbers plugged in. Parsing "(a * 3 + b * 4) / 7" the
+ *    millionth time produces exactly the tree we built the first time — so
+ *    keep the compiled Expression and hand it out again.
+ *
+ *    Keys are NORMALISED first: "2+3" and " 2 + 3 " are the same formula.
+ *    Whitespace is dropped except where it separates two words or numbers
+ *    ("1 2" must stay an error, not become 12). The exact text an entry was
+ *    first compiled from is kept as an alias, so resubmitting it verbatim
+ *    skips normalisation altogether.
+ *
+ *    The cache is bounded, so something must be evicted. Plain LRU throws
+ *    out a formula used 10,000 times just because a burst of one-off
+ *    expressions came through. We use FREQUENCY-AWARE eviction instead
+ *    (sampled LFU with aging, as in TieredStudentRepository): every hit
+ *    bumps a counter; to evict, sample a few entries and drop the least
+ *    used. Counters are halved periodically so yesterday's favourites fade.
+ *
+ *    A DOORKEEPER bit set also keeps one-offs out entirely: a formula is
+ *    only admitted the SECOND time it misses, so a burst of unique inputs
+ *    never evicts anything — it just gets parsed, as it would anyway.
+ *
+ *    Concurrency: hits are lock-free (ConcurrentHashMap.get + a counter
+ *    bump). Only misses take a lock, to insert and maybe evict — and misses
+ *    are exactly the rare case a cache exists to avoid.
+ *
+ * Topics covered:
+ *   1. ConcurrentHashMap for lock-free reads
+ *   2. LongAdder counters under contention
+ *   3. Sampled LFU eviction vs LRU, doorkeeper admission
+ *
+ * 🔗 SEE ALSO: p07_Applications/StudentRenderCache.java (LRU)
+ * 🔗 SEE ALSO: p07_Applications/TieredStudentRepository.java (sampled LFU)
+ */
+package p07_Applications;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import p07_Applications.ExpressionEngine.Expression;
+
+public class ExpressionCache {
+
+    static final int EVICTION_SAMPLES = 5;
+    static final int MAX_FREQUENCY = 255;
+    static final int DOORKEEPER_BITS = 1 << 16;
+
+    private static final class Entry {
+        final String key;
+        final String alias; // the exact text first seen, if it differs from key
+        final Expression expression;
+        /** Racy increments may drop a count now and then — fine for a heuristic. */
+        volatile int frequency = 1;
+        int slot; // position in entries list, guarded by the cache lock
+
+        Entry(String key, String alias, Expression expression) {
+            this.key = key;
+            this.alias = alias;
+            this.expression = expression;
+        }
+    }
+
+    private final int capacity;
+    private final Map<String, Entry> map = new ConcurrentHashMap<>();
+    private final List<Entry> entries = new ArrayList<>(); // for O(1) random sampling
+    private final LongAdder accessesSinceAging = new LongAdder();
+    /** Bit set of keys seen once since the last aging (two hash bits per key). */
+    private final AtomicLongArray doorkeeper = new AtomicLongArray(DOORKEEPER_BITS / 64);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    ExpressionCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.capacity = capacity;
+    }
+
+    /** The compiled form of source, parsing only on a miss. Syntax errors are not cached. */
+    Expression get(String source) {
+        return get(source, List.of());
+    }
+
+    Expression get(String source, List<String> variables) {
+        accessesSinceAging.increment();
+        String prefix = variables.isEmpty() ? "" : String.join(",", variables) + "|";
+        String raw = prefix.isEmpty() ? source : prefix + source;
+        Entry entry = map.get(raw); // the exact text seen before: no normalising needed
+        String key = raw;
+        if (entry == null) {
+            key = prefix + normalize(source);
+            if (!key.equals(raw))
+                entry = map.get(key);
+        }
+        if (entry != null) {
+            hits.increment();
+            int f = entry.frequency;
+            if (f < MAX_FREQUENCY)
+                entry.frequency = f + 1;
+            return entry.expression;
+        }
+        misses.increment();
+        Expression compiled = ExpressionEngine.compile(source, variables); // outside the lock
+        if (!seenBefore(key))
+            return compiled; // first sighting: don't let a one-off push out a regular
+        synchronized (this) {
+            Entry raced = map.get(key);
+            if (raced != null)
+                return raced.expression;
+            while (entries.size() >= capacity)
+                evictOne();
+            entry = new Entry(key, raw.equals(key) ? null : raw, compiled);
+            entry.slot = entries.size();
+            entries.add(entry);
+            map.put(key, entry);
+            if (entry.alias != null)
+                map.put(entry.alias, entry);
+        }
+        return compiled;
+    }
+
+    /** Marks key as seen; true if it had (probably) been seen already. */
+    private boolean seenBefore(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return setBit(h >>> 16) & setBit(h & 0xFFFF); // not &&: both bits must be set
+    }
+
+    /** Sets one doorkeeper bit; true if it was already set. */
+    private boolean setBit(int bit) {
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+        long old;
+        do {
+            old = doorkeeper.get(word);
+            if ((old & mask) != 0)
+                return true;
+        } while (!doorkeeper.compareAndSet(word, old, old | mask));
+        return false;
+    }
+
+    /** Called with the lock held. */
+    private void evictOne() {
+        if (accessesSinceAging.sum() >= 10L * capacity) {
+            // Aging: halve every counter so old popularity fades, and forget one-time sightings
+            for (Entry e : entries)
+                e.frequency >>= 1;
+            for (int i = 0; i < doorkeeper.length(); i++)
+                doorkeeper.set(i, 0);
+            accessesSinceAging.reset();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Entry victim = null;
+        for (int i = 0; i < EVICTION_SAMPLES; i++) {
+            Entry candidate = entries.get(random.nextInt(entries.size()));
+            if (victim == null || candidate.frequency < victim.frequency)
+                victim = candidate;
+        }
+        // swap-remove keeps sampling O(1)
+        Entry last = entries.remove(entries.size() - 1);
+        if (last != victim) {
+            entries.set(victim.slot, last);
+            last.slot = victim.slot;
+        }
+        map.remove(victim.key);
+        if (victim.alias != null)
+            map.remove(victim.alias);
+        evictions.increment();
+    }
+
+    /**
+     * Drops whitespace, except a single space where removing it would join two
+     * tokens: between two word/number characters, and between a number's 'e'
+     * and a sign ("1e -5" is an error, "1e-5" a number — they must not share a key).
+     */
+    static String normalize(String source) {
+        StringBuilder key = new StringBuilder(source.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = key.length() > 0;
+                continue;
+            }
+            if (pendingSpace && (isWordChar(key.charAt(key.length() - 1)) && isWordChar(c)
+                    || (c == '+' || c == '-') && endsWithExponentMarker(key)))
+                key.append(' ');
+            pendingSpace = false;
+            key.append(c);
+        }
+        return key.length() == source.length() ? source : key.toString();
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '.' || c == '_';
+    }
+
+    /** True if key ends in 'e' or 'E' right after a digit or '.', as in "1e" or "2.E". */
+    private static boolean endsWithExponentMarker(StringBuilder key) {
+        int n = key.length();
+        if (n < 2)
+            return false;
+        char last = key.charAt(n - 1);
+        char before = key.charAt(n - 2);
+        return (last == 'e' || last == 'E') && (Character.isDigit(before) || before == '.');
+    }
+
+    // ── Metrics ──
+    synchronized int size() {
+        return entries.size();
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    double hitRate() {
+        long h = hits(), total = h + misses();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    String stats() {
+        return String.format("size %d/%d, hits %,d, misses %,d, evictions %,d, hit rate %.1f%%", size(), capacity,
+                hits(), misses(), evictions(), hitRate() * 100);
+    }
+
+    // =====================================================================
+    // MAIN — popular formulas plus a stream of one-offs, LFU vs LRU
+    // =====================================================================
+    public static void main(String[] args) throws InterruptedException {
+        String[] popular = new String[200];
+        for (int i = 0; i < popular.length; i++)
+            popular[i] = "(" + i + " * 3 + sqrt(" + (i + 7) + ") * 4) / 7";
+        Random random = new Random(42);
+        String[] workload = new String[400_000];
+        for (int i = 0; i < workload.length; i++) {
+            if (random.nextInt(3) == 0) // a third of the traffic is one-off noise
+                workload[i] = random.nextInt(1_000_000) + " + " + random.nextInt(1000);
+            else // the rest is skewed: low indexes are far more popular
+                workload[i] = popular[(int) (popular.length * Math.pow(random.nextDouble(), 3))];
+        }
+
+        // LRU of the same size, for comparison
+        int capacity = 128;
+        long[] lruHits = new long[1];
+        Map<String, Expression> lru = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest) {
+                return size() > capacity;
+            }
+        };
+        for (String s : workload) {
+            if (lru.get(normalize(s)) != null)
+                lruHits[0]++;
+            else
+                lru.put(normalize(s), ExpressionEngine.compile(s));
+        }
+        System.out.printf("LRU (%d entries):         hit rate %.1f%%%n", capacity,
+                100.0 * lruHits[0] / workload.length);
+
+        // The same workload on 4 threads against one shared cache
+        ExpressionCache cache = new ExpressionCache(capacity);
+        int threads = 4;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            workers[t] = new Thread(() -> {
+                for (int i = first; i < workload.length; i += threads)
+                    cache.get(workload[i]).evaluate();
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers)
+            w.join();
+        System.out.printf("Sampled LFU (%d entries): %s%n", capacity, cache.stats());
+
+        // Timing: popular formulas only (the case the cache is for), best of 5 after warm-up
+        String[] repeated = Arrays.stream(workload).filter(s -> s.contains("sqrt")).toArray(String[]::new);
+        ExpressionCache warm = new ExpressionCache(capacity);
+        long parseBest = Long.MAX_VALUE, cacheBest = Long.MAX_VALUE;
+        double sink = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (String s : repeated)
+                sink += ExpressionEngine.compile(s).evaluate();
+            parseBest = Math.min(parseBest, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (String s : repeated)
+                sink += warm.get(s).evaluate();
+            cacheBest = Math.min(cacheBest, System.nanoTime() - start);
+        }
+        System.out.printf("%,d popular lookups: parse every time %.1f ms, cached %.1f ms (%.1fx)  [%s]%n",
+                repeated.length, parseBest / 1e6, cacheBest / 1e6, (double) parseBest / cacheBest,
+                sink > 0 ? "ok" : "?");
+    }
+}
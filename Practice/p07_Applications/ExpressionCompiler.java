@@ -0,0 +1,549 @@
+/**
+ * ExpressionCompiler.java — From AST to Closures to JVM Bytecode
+ * ===============================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: Evaluating "w / (h / 100) ^ 2" over a million rows with the
+ *    AST from ExpressionEngine asks, at every node and every row, "what kind
+ *    of node am I? which operator?" — the answer never changes. COMPILING
+ *    asks those questions once and produces code that just does the math.
+ *
+ *    Three tiers, each faster than the last:
+ *
+ *      INTERPRETED  Binary.eval() switches on the operator char for every row
+ *      CLOSURES     the tree is turned into nested lambdas, each specialised
+ *                   for its operator (and for "variable op constant" shapes),
+ *                   so no switch runs at evaluation time
+ *      BYTECODE     the tree is written out as a real JVM method
+ *                       aload_1; iconst_0; daload; ... ddiv; dreturn
+ *                   in a tiny class file, loaded with
+ *                   MethodHandles.Lookup.defineHiddenClass. The JIT then sees
+ *                   one flat method and compiles it like hand-written Java.
+ *
+ *    The class file is built by hand (no libraries): a constant pool, one
+ *    constructor and one eval([D)D method. The method has no branches, so
+ *    no StackMapTable is needed.
+ *
+ *    A tree from ExpressionOptimizer may SHARE a subtree between two parents
+ *    (common subexpression elimination). The first time such a node is
+ *    emitted its value is also stored in a local variable (dup2; dstore);
+ *    every later use is a single dload.
+ *
+ *    User operators and functions from an OperatorRegistry are lambdas,
+ *    not static methods. The constructor stores each one in a final field
+ *    and eval calls it through invokeinterface. Every generated class has
+ *    its own call site that only ever sees that one lambda, so the JIT
+ *    inlines it just as it inlines Math.sqrt.
+ *
+ * Topics covered:
+ *   1. Closure compilation (functional interfaces + lambdas)
+ *   2. The class-file format: constant pool, descriptors, operand stack
+ *   3. Hidden classes (Java 15+): runtime-defined, unloadable classes
+ *
+ * 🔗 SEE ALSO: p07_Applications/ExpressionEngine.java
+ * 🔗 SEE ALSO: p03_Interfaces/FunctionalInterfaceDemo.java
+ */
+package p07_Applications;
+
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import p07_Applications.ExpressionEngine.*;
+import p07_Applications.OperatorRegistry.FunctionDef;
+
+public class ExpressionCompiler {
+
+    /** A compiled formula: vars[i] is the value of variable slot i. */
+    @FunctionalInterface
+    interface DoubleEvaluator {
+        double eval(double[] vars);
+    }
+
+    // =====================================================================
+    // TIER 2 — CLOSURES
+    // =====================================================================
+
+    static DoubleEvaluator toClosures(Node node) {
+        if (node instanceof Num n) {
+            double value = n.value();
+            return vars -> value;
+        }
+        if (node instanceof Var v) {
+            int slot = v.slot();
+            return vars -> vars[slot];
+        }
+        if (node instanceof Neg neg) {
+            DoubleEvaluator operand = toClosures(neg.operand());
+            return vars -> -operand.eval(vars);
+        }
+        if (node instanceof Binary b) {
+            if (!b.operator().builtin()) {
+                DoubleBinaryOperator f = b.operator().function();
+                DoubleEvaluator l = toClosures(b.left());
+                DoubleEvaluator r = toClosures(b.right());
+                return vars -> f.applyAsDouble(l.eval(vars), r.eval(vars));
+            }
+            // "x op constant" is common (x * 3, h / 100): skip a call for the constant
+            if (b.right() instanceof Num n)
+                return withConstant(b.op(), toClosures(b.left()), n.value());
+            DoubleEvaluator l = toClosures(b.left());
+            DoubleEvaluator r = toClosures(b.right());
+            return switch (b.op()) {
+                case '+' -> vars -> l.eval(vars) + r.eval(vars);
+                case '-' -> vars -> l.eval(vars) - r.eval(vars);
+                case '*' -> vars -> l.eval(vars) * r.eval(vars);
+                case '/' -> vars -> l.eval(vars) / r.eval(vars);
+                case '%' -> vars -> l.eval(vars) % r.eval(vars);
+                case '^' -> vars -> Math.pow(l.eval(vars), r.eval(vars));
+                default -> throw new IllegalStateException("Unknown operator " + b.op());
+            };
+        }
+        Call call = (Call) node;
+        FunctionDef def = call.function();
+        DoubleEvaluator a = toClosures(call.args().get(0));
+        if (def.builtin() != null) {
+            Function f = def.builtin();
+            if (f.getArity() == 1)
+                return vars -> f.apply(a.eval(vars), 0.0);
+            DoubleEvaluator b = toClosures(call.args().get(1));
+            return vars -> f.apply(a.eval(vars), b.eval(vars));
+        }
+        if (def.arity() == 1) {
+            DoubleUnaryOperator f = def.unary();
+            return vars -> f.applyAsDouble(a.eval(vars));
+        }
+        DoubleBinaryOperator f = def.binary();
+        DoubleEvaluator b = toClosures(call.args().get(1));
+        return vars -> f.applyAsDouble(a.eval(vars), b.eval(vars));
+    }
+
+    private static DoubleEvaluator withConstant(char op, DoubleEvaluator l, double c) {
+        return switch (op) {
+            case '+' -> vars -> l.eval(vars) + c;
+            case '-' -> vars -> l.eval(vars) - c;
+            case '*' -> vars -> l.eval(vars) * c;
+            case '/' -> vars -> l.eval(vars) / c;
+            case '%' -> vars -> l.eval(vars) % c;
+            case '^' -> c == 2.0 ? vars -> {
+                double x = l.eval(vars);
+                return x * x;
+            } : vars -> Math.pow(l.eval(vars), c);
+            default -> throw new IllegalStateException("Unknown operator " + op);
+        };
+    }
+
+    // =====================================================================
+    // TIER 3 — BYTECODE IN A HIDDEN CLASS
+    // =====================================================================
+
+    /** The java.lang.Math method behind each built-in function. */
+    private static final Map<Function, String> MATH_METHODS = new EnumMap<>(Map.ofEntries(
+            Map.entry(Function.SQRT, "sqrt"), Map.entry(Function.ABS, "abs"), Map.entry(Function.SIN, "sin"),
+            Map.entry(Function.COS, "cos"), Map.entry(Function.TAN, "tan"), Map.entry(Function.LN, "log"),
+            Map.entry(Function.LOG, "log10"), Map.entry(Function.EXP, "exp"), Map.entry(Function.FLOOR, "floor"),
+            Map.entry(Function.CEIL, "ceil"), Map.entry(Function.ROUND, "rint"), Map.entry(Function.MIN, "min"),
+            Map.entry(Function.MAX, "max"), Map.entry(Function.POW, "pow")));
+
+    private static final String CLASS_NAME = "p07_Applications/ExpressionCompiler$Generated";
+    private static final String INTERFACE_NAME = "p07_Applications/ExpressionCompiler$DoubleEvaluator";
+    private static final String UNARY_NAME = "java/util/function/DoubleUnaryOperator";
+    private static final String BINARY_NAME = "java/util/function/DoubleBinaryOperator";
+
+    static DoubleEvaluator toBytecode(Node node) {
+        ClassFileWriter writer = new ClassFileWriter();
+        byte[] classFile = writer.write(node);
+        try {
+            Class<?> generated = MethodHandles.lookup().defineHiddenClass(classFile, true).lookupClass();
+            return (DoubleEvaluator) generated.getDeclaredConstructor(Object[].class)
+                    .newInstance((Object) writer.captured.toArray());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Generated class was rejected", e);
+        }
+    }
+
+    /** Just enough of the class-file format for one straight-line method. */
+    private static final class ClassFileWriter {
+        // opcodes
+        private static final int ALOAD_0 = 0x2A, ALOAD_1 = 0x2B, DCONST_0 = 0x0E, DCONST_1 = 0x0F,
+                BIPUSH = 0x10, SIPUSH = 0x11, LDC2_W = 0x14, DLOAD = 0x18, DALOAD = 0x31, AALOAD = 0x32,
+                DSTORE = 0x39, DADD = 0x63,
+                DSUB = 0x67, DMUL = 0x6B, DDIV = 0x6F, DREM = 0x73, DNEG = 0x77, DUP2 = 0x5C, DRETURN = 0xAF,
+                RETURN = 0xB1, GETFIELD = 0xB4, PUTFIELD = 0xB5, INVOKESPECIAL = 0xB7, INVOKESTATIC = 0xB8,
+                INVOKEINTERFACE = 0xB9, CHECKCAST = 0xC0;
+
+        /** User lambdas, passed to the constructor; field f<i> holds captured[i]. */
+        final List<Object> captured = new ArrayList<>();
+        private final List<int[]> fields = new ArrayList<>(); // {name, descriptor, field ref, class ref}
+
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        private final DataOutputStream poolOut = new DataOutputStream(pool);
+        private final Map<String, Integer> poolIndex = new HashMap<>();
+        private int poolCount = 1; // entry 0 is unused
+
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        private int stack; // in 4-byte words; a double takes 2
+        private int maxStack;
+
+        /** How many parents reach each node: more than one means a shared subexpression. */
+        private final Map<Node, Integer> uses = new IdentityHashMap<>();
+        /** Local variable holding each shared node's value once it has been computed. */
+        private final Map<Node, Integer> locals = new IdentityHashMap<>();
+        private int nextLocal = 2; // 0 is this, 1 is vars; a double takes 2 slots
+
+        byte[] write(Node root) {
+            try {
+                int thisClass = classRef(CLASS_NAME);
+                int superClass = classRef("java/lang/Object");
+                int iface = classRef(INTERFACE_NAME);
+                int objectInit = methodRef("java/lang/Object", "<init>", "()V");
+                int codeAttr = utf8("Code");
+                int initName = utf8("<init>"), initDesc = utf8("([Ljava/lang/Object;)V");
+                int evalName = utf8("eval"), evalDesc = utf8("([D)D");
+
+                countUses(root);
+                emit(root);
+                code.write(DRETURN);
+                if (code.size() > 65_535)
+                    throw new IllegalArgumentException("Expression too large to compile");
+
+                // public <init>(Object[] captured) { super(); f0 = (T) captured[0]; ... }
+                ByteArrayOutputStream init = new ByteArrayOutputStream();
+                init.write(ALOAD_0);
+                init.write(INVOKESPECIAL);
+                init.write(objectInit >> 8);
+                init.write(objectInit);
+                for (int i = 0; i < fields.size(); i++) {
+                    int[] field = fields.get(i);
+                    init.write(ALOAD_0);
+                    init.write(ALOAD_1);
+                    init.write(SIPUSH);
+                    init.write(i >> 8);
+                    init.write(i);
+                    init.write(AALOAD);
+                    init.write(CHECKCAST);
+                    init.write(field[3] >> 8);
+                    init.write(field[3]);
+                    init.write(PUTFIELD);
+                    init.write(field[2] >> 8);
+                    init.write(field[2]);
+                }
+                init.write(RETURN);
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(61); // Java 17
+                out.writeShort(poolCount);
+                pool.writeTo(out);
+                out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);
+                out.writeShort(iface);
+                out.writeShort(fields.size());
+                for (int[] field : fields) {
+                    out.writeShort(0x0002 | 0x0010); // private final
+                    out.writeShort(field[0]);
+                    out.writeShort(field[1]);
+                    out.writeShort(0); // attributes
+                }
+                out.writeShort(2); // methods
+
+                writeMethod(out, initName, initDesc, codeAttr, fields.isEmpty() ? 1 : 3, 2, init.toByteArray());
+                // public double eval(double[] vars) { ... }
+                writeMethod(out, evalName, evalDesc, codeAttr, maxStack, nextLocal, code.toByteArray());
+
+                out.writeShort(0); // class attributes
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // in-memory streams don't throw
+            }
+        }
+
+        private static void writeMethod(DataOutputStream out, int name, int desc, int codeAttr, int maxStack,
+                int maxLocals, byte[] body) throws IOException {
+            out.writeShort(0x0001); // public
+            out.writeShort(name);
+            out.writeShort(desc);
+            out.writeShort(1);
+            out.writeShort(codeAttr);
+            out.writeInt(12 + body.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(body.length);
+            out.write(body);
+            out.writeShort(0); // exception table
+            out.writeShort(0); // attributes
+        }
+
+        private void countUses(Node node) {
+            if (uses.merge(node, 1, Integer::sum) > 1)
+                return; // children were counted on the first visit
+            if (node instanceof Neg neg) {
+                countUses(neg.operand());
+            } else if (node instanceof Binary b) {
+                countUses(b.left());
+                countUses(b.right());
+            } else if (node instanceof Call call) {
+                for (Node arg : call.args())
+                    countUses(arg);
+            }
+        }
+
+        /** Leaves the node's value (one double) on the operand stack, computing shared nodes only once. */
+        private void emit(Node node) throws IOException {
+            boolean leaf = node instanceof Num || node instanceof Var;
+            if (leaf || uses.get(node) < 2) {
+                emitNode(node);
+                return;
+            }
+            Integer local = locals.get(node);
+            if (local != null) {
+                code.write(DLOAD);
+                code.write(local);
+                push(2);
+                return;
+            }
+            emitNode(node);
+            if (nextLocal > 253)
+                return; // dload/dstore take a one-byte index; recompute beyond that
+            op(DUP2);
+            push(2);
+            code.write(DSTORE);
+            code.write(nextLocal);
+            pop(2);
+            locals.put(node, nextLocal);
+            nextLocal += 2;
+        }
+
+        private void emitNode(Node node) throws IOException {
+            if (node instanceof Num n) {
+                double v = n.value();
+                if (Double.doubleToRawLongBits(v) == 0L)
+                    op(DCONST_0);
+                else if (v == 1.0)
+                    op(DCONST_1);
+                else
+                    op(LDC2_W, doubleConst(v));
+                push(2);
+            } else if (node instanceof Var v) {
+                op(ALOAD_1);
+                push(1);
+                int slot = v.slot();
+                if (slot < 128) {
+                    code.write(BIPUSH);
+                    code.write(slot);
+                } else {
+                    op(SIPUSH, slot);
+                }
+                push(1);
+                op(DALOAD);
+                pop(2);
+                push(2);
+            } else if (node instanceof Neg neg) {
+                emit(neg.operand());
+                op(DNEG);
+            } else if (node instanceof Binary b && !b.operator().builtin()) {
+                invokeCaptured(b.operator().function(), BINARY_NAME, List.of(b.left(), b.right()));
+            } else if (node instanceof Binary b) {
+                emit(b.left());
+                if (b.op() == '^' && b.right() instanceof Num n && n.value() == 2.0) {
+                    op(DUP2); // x^2 → x * x
+                    push(2);
+                    op(DMUL);
+                    pop(2);
+                    return;
+                }
+                emit(b.right());
+                switch (b.op()) {
+                    case '+' -> op(DADD);
+                    case '-' -> op(DSUB);
+                    case '*' -> op(DMUL);
+                    case '/' -> op(DDIV);
+                    case '%' -> op(DREM);
+                    case '^' -> op(INVOKESTATIC, methodRef("java/lang/Math", "pow", "(DD)D"));
+                    default -> throw new IllegalStateException("Unknown operator " + b.op());
+                }
+                pop(2);
+            } else {
+                Call call = (Call) node;
+                FunctionDef def = call.function();
+                if (def.builtin() == null) {
+                    if (def.arity() == 1)
+                        invokeCaptured(def.unary(), UNARY_NAME, call.args());
+                    else
+                        invokeCaptured(def.binary(), BINARY_NAME, call.args());
+                    return;
+                }
+                for (Node arg : call.args())
+                    emit(arg);
+                String desc = def.arity() == 1 ? "(D)D" : "(DD)D";
+                op(INVOKESTATIC, methodRef("java/lang/Math", MATH_METHODS.get(def.builtin()), desc));
+                pop(2 * def.arity());
+                push(2);
+            }
+        }
+
+        /** this.f<i>.applyAsDouble(args...), where f<i> holds the lambda. */
+        private void invokeCaptured(Object lambda, String type, List<Node> args) throws IOException {
+            int index = captured.indexOf(lambda);
+            if (index < 0) {
+                index = captured.size();
+                captured.add(lambda);
+                String name = "f" + index, desc = "L" + type + ";";
+                fields.add(new int[] { utf8(name), utf8(desc), fieldRef(CLASS_NAME, name, desc), classRef(type) });
+            }
+            op(ALOAD_0);
+            push(1);
+            op(GETFIELD, fields.get(index)[2]);
+            for (Node arg : args)
+                emit(arg);
+            String desc = args.size() == 1 ? "(D)D" : "(DD)D";
+            op(INVOKEINTERFACE, interfaceMethodRef(type, "applyAsDouble", desc));
+            code.write(1 + 2 * args.size()); // argument words, including the receiver
+            code.write(0);
+            pop(1 + 2 * args.size());
+            push(2);
+        }
+
+        private void op(int opcode) {
+            code.write(opcode);
+        }
+
+        private void op(int opcode, int u2) {
+            code.write(opcode);
+            code.write(u2 >> 8);
+            code.write(u2);
+        }
+
+        private void push(int words) {
+            stack += words;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        private void pop(int words) {
+            stack -= words;
+        }
+
+        // ── constant pool ──
+
+        private int utf8(String s) throws IOException {
+            Integer existing = poolIndex.get("U" + s);
+            if (existing != null)
+                return existing;
+            poolOut.writeByte(1);
+            poolOut.writeUTF(s);
+            return add("U" + s, 1);
+        }
+
+        private int classRef(String internalName) throws IOException {
+            Integer existing = poolIndex.get("C" + internalName);
+            if (existing != null)
+                return existing;
+            int name = utf8(internalName);
+            poolOut.writeByte(7);
+            poolOut.writeShort(name);
+            return add("C" + internalName, 1);
+        }
+
+        private int methodRef(String owner, String name, String desc) throws IOException {
+            return memberRef(10, owner, name, desc);
+        }
+
+        private int interfaceMethodRef(String owner, String name, String desc) throws IOException {
+            return memberRef(11, owner, name, desc);
+        }
+
+        private int fieldRef(String owner, String name, String desc) throws IOException {
+            return memberRef(9, owner, name, desc);
+        }
+
+        private int memberRef(int tag, String owner, String name, String desc) throws IOException {
+            String key = "M" + tag + owner + "." + name + desc;
+            Integer existing = poolIndex.get(key);
+            if (existing != null)
+                return existing;
+            int ownerRef = classRef(owner);
+            int nameAndType = nameAndType(name, desc);
+            poolOut.writeByte(tag);
+            poolOut.writeShort(ownerRef);
+            poolOut.writeShort(nameAndType);
+            return add(key, 1);
+        }
+
+        private int nameAndType(String name, String desc) throws IOException {
+            String key = "N" + name + desc;
+            Integer existing = poolIndex.get(key);
+            if (existing != null)
+                return existing;
+            int nameRef = utf8(name);
+            int descRef = utf8(desc);
+            poolOut.writeByte(12);
+            poolOut.writeShort(nameRef);
+            poolOut.writeShort(descRef);
+            return add(key, 1);
+        }
+
+        private int doubleConst(double v) throws IOException {
+            String key = "D" + Double.doubleToRawLongBits(v);
+            Integer existing = poolIndex.get(key);
+            if (existing != null)
+                return existing;
+            poolOut.writeByte(6);
+            poolOut.writeDouble(v);
+            return add(key, 2); // doubles occupy two pool slots
+        }
+
+        private int add(String key, int slots) {
+            int index = poolCount;
+            poolIndex.put(key, index);
+            poolCount += slots;
+            return index;
+        }
+    }
+
+    // =====================================================================
+    // MAIN — one formula, a million rows, three tiers
+    // =====================================================================
+    public static void main(String[] args) {
+        String formula = "(q1 * 3 + q2 * 4 + q3 * 3) / 10 * 0.7 + final * 0.3 + max(0, bonus - 2) ^ 2 / 100";
+        Expression expr = ExpressionEngine.compile(formula, List.of("q1", "q2", "q3", "final", "bonus"));
+        DoubleEvaluator closures = toClosures(expr.getRoot());
+        DoubleEvaluator bytecode = toBytecode(expr.getRoot());
+
+        Random random = new Random(38);
+        double[][] rows = new double[1_000_000][];
+        for (int i = 0; i < rows.length; i++)
+            rows[i] = new double[] { 60 + random.nextInt(40), 60 + random.nextInt(40), 60 + random.nextInt(40),
+                    50 + random.nextInt(50), random.nextInt(10) };
+
+        double[] sample = rows[0];
+        System.out.println("Formula: " + expr);
+        System.out.printf("Row 0: interpreted %.6f, closures %.6f, bytecode %.6f%n", expr.evaluate(sample),
+                closures.eval(sample), bytecode.eval(sample));
+
+        DoubleEvaluator interpreted = expr::evaluate;
+        Map<String, DoubleEvaluator> tiers = new LinkedHashMap<>();
+        tiers.put("interpreted", interpreted);
+        tiers.put("closures", closures);
+        tiers.put("bytecode", bytecode);
+        for (Map.Entry<String, DoubleEvaluator> tier : tiers.entrySet()) {
+            DoubleEvaluator eval = tier.getValue();
+            long best = Long.MAX_VALUE;
+            double sum = 0;
+            for (int round = 0; round < 8; round++) { // first rounds warm up the JIT
+                long start = System.nanoTime();
+                sum = 0;
+                for (double[] row : rows)
+                    sum += eval.eval(row);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%-12s %7.1f ms  %6.1f M rows/s  (checksum %.3f)%n", tier.getKey(), best / 1e6,
+                    rows.length / (best / 1e9) / 1e6, sum);
+        }
+    }
+}
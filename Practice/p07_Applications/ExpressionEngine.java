@@ -0,0 +1,575 @@
+/**
+ * ExpressionEngine.java — Tokenizer, Precedence-Climbing Parser, Compiled AST
+ * ===========================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: "2 + 3 * (4 - 1)" is not read left to right — * binds tighter
+ *    than +, and parentheses override both. A calculator therefore works in
+ *    three stages:
+ *
+ *      1. TOKENIZE   characters → tokens:   2  +  3  *  (  4  -  1  )
+ *      2. PARSE      tokens → a TREE (AST) that encodes precedence:
+ *
+ *                        +
+ *                       / \
+ *                      2   *
+ *                         / \
+ *                        3   -
+ *                           / \
+ *                          4   1
+ *
+ *      3. EVALUATE   walk the tree bottom-up.
+ *
+ *    Steps 1 and 2 happen ONCE in compile(). The resulting Expression is
+ *    immutable and can be evaluated again and again — no string work, no
+ *    parsing, no allocation (evaluation only passes doubles around).
+ *
+ *    VARIABLES are bound to SLOTS at compile time: in
+ *    compile("w / h^2", List.of("w", "h")) the name w becomes slot 0, so
+ *    evaluation reads values[0] instead of looking a name up in a map.
+ *
+ *    PRECEDENCE CLIMBING: parse(minPrec) reads an operand, then keeps
+ *    absorbing operators whose precedence is ≥ minPrec. The right operand
+ *    of a left-associative operator is parsed with minPrec = prec + 1 (so
+ *    1 - 2 - 3 groups as (1 - 2) - 3); a right-associative one like ^ uses
+ *    prec itself (2 ^ 3 ^ 2 = 2 ^ 9).
+ *
+ *      level  operators
+ *        1    +  -
+ *        2    *  /  %
+ *        3    unary -    (-2^2 = -(2^2) = -4, as in mathematics)
+ *        4    ^          (right-associative)
+ *
+ *    Operators and functions are not hard-wired: the tokenizer and parser
+ *    look them up in an OperatorRegistry, so compile(source, variables,
+ *    registry) accepts whatever that table defines.
+ *
+ * Topics covered:
+ *   1. Lexical analysis in a single pass, without regex or substrings
+ *   2. Recursive descent / precedence climbing
+ *   3. Immutable ASTs with sealed interfaces and records
+ *   4. Enums with per-constant behaviour (built-in functions)
+ *
+ * 🔗 SEE ALSO: p07_Applications/Calculator.java
+ * 🔗 SEE ALSO: p07_Applications/NumberScanner.java (number literals)
+ * 🔗 SEE ALSO: p07_Applications/OperatorRegistry.java (the operator table)
+ * 🔗 SEE ALSO: p02_OOP/EnumDemo.java (Operation enum with abstract apply)
+ */
+package p07_Applications;
+
+import java.util.*;
+
+import p07_Applications.OperatorRegistry.FunctionDef;
+import p07_Applications.OperatorRegistry.Operator;
+
+public class ExpressionEngine {
+
+    /** A syntax error, with the character offset where it was detected. */
+    static final class ExpressionException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+        private final int position;
+
+        ExpressionException(String message, int position) {
+            super(message + " at position " + position);
+            this.position = position;
+        }
+
+        int getPosition() {
+            return position;
+        }
+    }
+
+    // =====================================================================
+    // BUILT-IN FUNCTIONS
+    // =====================================================================
+
+    enum Function {
+        SQRT("sqrt", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.sqrt(a);
+            }
+        },
+        ABS("abs", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.abs(a);
+            }
+        },
+        SIN("sin", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.sin(a);
+            }
+        },
+        COS("cos", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.cos(a);
+            }
+        },
+        TAN("tan", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.tan(a);
+            }
+        },
+        LN("ln", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.log(a);
+            }
+        },
+        LOG("log", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.log10(a);
+            }
+        },
+        EXP("exp", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.exp(a);
+            }
+        },
+        FLOOR("floor", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.floor(a);
+            }
+        },
+        CEIL("ceil", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.ceil(a);
+            }
+        },
+        ROUND("round", 1) {
+            @Override
+            double apply(double a, double b) {
+                return Math.rint(a);
+            }
+        },
+        MIN("min", 2) {
+            @Override
+            double apply(double a, double b) {
+                return Math.min(a, b);
+            }
+        },
+        MAX("max", 2) {
+            @Override
+            double apply(double a, double b) {
+                return Math.max(a, b);
+            }
+        },
+        POW("pow", 2) {
+            @Override
+            double apply(double a, double b) {
+                return Math.pow(a, b);
+            }
+        };
+
+        private final String name;
+        private final int arity;
+
+        Function(String name, int arity) {
+            this.name = name;
+            this.arity = arity;
+        }
+
+        /** Unary functions ignore b. */
+        abstract double apply(double a, double b);
+
+        int getArity() {
+            return arity;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    // =====================================================================
+    // AST — immutable nodes; eval() only passes doubles around
+    // =====================================================================
+
+    /** vars holds the value of each variable, indexed by its slot. */
+    sealed interface Node permits Num, Var, Neg, Binary, Call {
+        double eval(double[] vars);
+    }
+
+    record Num(double value) implements Node {
+        @Override
+        public double eval(double[] vars) {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value)
+                    : Double.toString(value);
+        }
+    }
+
+    record Var(String name, int slot) implements Node {
+        @Override
+        public double eval(double[] vars) {
+            return vars[slot];
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    record Neg(Node operand) implements Node {
+        @Override
+        public double eval(double[] vars) {
+            return -operand.eval(vars);
+        }
+
+        @Override
+        public String toString() {
+            return "(-" + operand + ")";
+        }
+    }
+
+    /** Built-in operators are switched on inline; user operators call their function. */
+    record Binary(Operator operator, Node left, Node right) implements Node {
+        char op() {
+            return operator.symbol();
+        }
+
+        @Override
+        public double eval(double[] vars) {
+            double a = left.eval(vars);
+            double b = right.eval(vars);
+            if (!operator.builtin())
+                return operator.function().applyAsDouble(a, b);
+            return switch (operator.symbol()) {
+                case '+' -> a + b;
+                case '-' -> a - b;
+                case '*' -> a * b;
+                case '/' -> a / b;
+                case '%' -> a % b;
+                case '^' -> Math.pow(a, b);
+                default -> throw new IllegalStateException("Unknown operator " + op());
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " " + op() + " " + right + ")";
+        }
+    }
+
+    record Call(FunctionDef function, List<Node> args) implements Node {
+        Call {
+            args = List.copyOf(args);
+        }
+
+        @Override
+        public double eval(double[] vars) {
+            return function.arity() == 1 ? function.apply(args.get(0).eval(vars), 0.0)
+                    : function.apply(args.get(0).eval(vars), args.get(1).eval(vars));
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner joined = new StringJoiner(", ", function + "(", ")");
+            for (Node arg : args)
+                joined.add(arg.toString());
+            return joined.toString();
+        }
+    }
+
+    // =====================================================================
+    // TOKENIZER — scans on demand, never copies the input
+    // =====================================================================
+
+    enum TokenType {
+        NUMBER, IDENT, OPERATOR, LPAREN, RPAREN, COMMA, END
+    }
+
+    static final class Tokenizer {
+        private final CharSequence input;
+        private final OperatorRegistry registry;
+        private final NumberScanner numbers = new NumberScanner();
+        private int pos;
+
+        // the current token
+        TokenType type;
+        int start;
+        int end;
+        double number;
+        Operator operator;
+
+        Tokenizer(CharSequence input, OperatorRegistry registry) {
+            this.input = input;
+            this.registry = registry;
+            advance();
+        }
+
+        void advance() {
+            while (pos < input.length() && Character.isWhitespace(input.charAt(pos)))
+                pos++;
+            start = pos;
+            if (pos == input.length()) {
+                type = TokenType.END;
+                end = pos;
+                return;
+            }
+            char c = input.charAt(pos);
+            if (isDigit(c) || c == '.') {
+                scanNumber();
+            } else if (Character.isLetter(c)) {
+                while (pos < input.length() && (Character.isLetterOrDigit(input.charAt(pos)) || input.charAt(pos) == '_'))
+                    pos++;
+                type = TokenType.IDENT;
+            } else {
+                pos++;
+                switch (c) {
+                    case '(' -> type = TokenType.LPAREN;
+                    case ')' -> type = TokenType.RPAREN;
+                    case ',' -> type = TokenType.COMMA;
+                    default -> {
+                        operator = registry.operator(c);
+                        if (operator == null)
+                            throw new ExpressionException("Unexpected character '" + c + "'", start);
+                        type = TokenType.OPERATOR;
+                    }
+                }
+            }
+            end = pos;
+        }
+
+        /** digits [. digits] [e [+-] digits] — 'e' is only consumed when digits follow ("2e" is 2, then e). */
+        private void scanNumber() {
+            int next = numbers.scan(input, start);
+            if (next < 0)
+                throw new ExpressionException("Malformed number", start);
+            pos = next;
+            type = TokenType.NUMBER;
+            number = numbers.value();
+        }
+
+        String text() {
+            return input.subSequence(start, end).toString();
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+
+    // =====================================================================
+    // PARSER — precedence climbing
+    // =====================================================================
+
+    static final int UNARY_PRECEDENCE = 3;
+
+    static final class Parser {
+        private final Tokenizer tokens;
+        private final OperatorRegistry registry;
+        private final List<String> variables;
+
+        Parser(CharSequence input, List<String> variables, OperatorRegistry registry) {
+            this.tokens = new Tokenizer(input, registry);
+            this.registry = registry;
+            this.variables = variables;
+        }
+
+        Node parse() {
+            Node root = parseExpression(1);
+            if (tokens.type != TokenType.END)
+                throw new ExpressionException("Unexpected '" + tokens.text() + "'", tokens.start);
+            return root;
+        }
+
+        private Node parseExpression(int minPrecedence) {
+            Node left = parseUnary();
+            while (tokens.type == TokenType.OPERATOR && tokens.operator.precedence() >= minPrecedence) {
+                Operator op = tokens.operator;
+                int prec = op.precedence();
+                tokens.advance();
+                Node right = parseExpression(op.rightAssociative() ? prec : prec + 1);
+                left = new Binary(op, left, right);
+            }
+            return left;
+        }
+
+        private Node parseUnary() {
+            char sign = tokens.type == TokenType.OPERATOR ? tokens.operator.symbol() : 0;
+            if (sign == '-' || sign == '+') {
+                boolean negate = sign == '-';
+                tokens.advance();
+                Node operand = parseExpression(UNARY_PRECEDENCE);
+                return negate ? new Neg(operand) : operand;
+            }
+            return parsePrimary();
+        }
+
+        private Node parsePrimary() {
+            switch (tokens.type) {
+                case NUMBER -> {
+                    double value = tokens.number;
+                    tokens.advance();
+                    return new Num(value);
+                }
+                case LPAREN -> {
+                    tokens.advance();
+                    Node inner = parseExpression(1);
+                    expect(TokenType.RPAREN, "')'");
+                    return inner;
+                }
+                case IDENT -> {
+                    String name = tokens.text();
+                    int at = tokens.start;
+                    tokens.advance();
+                    if (tokens.type == TokenType.LPAREN)
+                        return parseCall(name, at);
+                    int slot = variables.indexOf(name);
+                    if (slot >= 0)
+                        return new Var(name, slot);
+                    return switch (name) {
+                        case "pi" -> new Num(Math.PI);
+                        case "e" -> new Num(Math.E);
+                        default -> throw new ExpressionException("Unknown name '" + name + "'", at);
+                    };
+                }
+                case END -> throw new ExpressionException("Unexpected end of expression", tokens.start);
+                default -> throw new ExpressionException("Unexpected '" + tokens.text() + "'", tokens.start);
+            }
+        }
+
+        private Node parseCall(String name, int at) {
+            FunctionDef function = registry.function(name);
+            if (function == null)
+                throw new ExpressionException("Unknown function '" + name + "'", at);
+            tokens.advance(); // (
+            List<Node> args = new ArrayList<>(2);
+            if (tokens.type != TokenType.RPAREN) {
+                args.add(parseExpression(1));
+                while (tokens.type == TokenType.COMMA) {
+                    tokens.advance();
+                    args.add(parseExpression(1));
+                }
+            }
+            expect(TokenType.RPAREN, "')'");
+            if (args.size() != function.arity())
+                throw new ExpressionException(name + " takes " + function.arity() + " argument(s), got "
+                        + args.size(), at);
+            return new Call(function, args);
+        }
+
+        private void expect(TokenType type, String what) {
+            if (tokens.type != type)
+                throw new ExpressionException("Expected " + what, tokens.start);
+            tokens.advance();
+        }
+    }
+
+    // =====================================================================
+    // COMPILED EXPRESSION
+    // =====================================================================
+
+    /** A parsed, immutable, reusable expression over zero or more variables. */
+    static final class Expression {
+        private static final double[] NO_VARIABLES = new double[0];
+
+        private final String source;
+        private final Node root;
+        private final List<String> variables;
+
+        private Expression(String source, Node root, List<String> variables) {
+            this.source = source;
+            this.root = root;
+            this.variables = variables;
+        }
+
+        double evaluate() {
+            return evaluate(NO_VARIABLES);
+        }
+
+        /** values[i] is the value of variables().get(i). */
+        double evaluate(double[] values) {
+            if (values.length < variables.size())
+                throw new IllegalArgumentException("Expected " + variables.size() + " values for " + variables);
+            return root.eval(values);
+        }
+
+        Node getRoot() {
+            return root;
+        }
+
+        /** The same source and variables over a rewritten tree, e.g. from ExpressionOptimizer. */
+        Expression withRoot(Node newRoot) {
+            return new Expression(source, newRoot, variables);
+        }
+
+        String getSource() {
+            return source;
+        }
+
+        List<String> getVariables() {
+            return variables;
+        }
+
+        @Override
+        public String toString() {
+            return root.toString();
+        }
+    }
+
+    static Expression compile(String source) {
+        return compile(source, List.of());
+    }
+
+    /** Compiles with the given variable names; the i-th name is bound to slot i. */
+    static Expression compile(String source, List<String> variables) {
+        return compile(source, variables, OperatorRegistry.STANDARD);
+    }
+
+    /** Compiles with the operators and functions of registry instead of the standard ones. */
+    static Expression compile(String source, List<String> variables, OperatorRegistry registry) {
+        List<String> names = List.copyOf(variables);
+        if (new HashSet<>(names).size() != names.size())
+            throw new IllegalArgumentException("Duplicate variable name in " + names);
+        return new Expression(source, new Parser(source, names, registry).parse(), names);
+    }
+
+    // =====================================================================
+    // MAIN — parse trees, errors, and compile-once vs re-parse
+    // =====================================================================
+    public static void main(String[] args) {
+        for (String s : new String[] { "2 + 3 * (4 - 1)", "-2^2", "2^3^2", "1 - 2 - 3", "sqrt(16) + max(2, 7) * 2",
+                "2 * pi", "3.5e2 / 7", "10 % 4" }) {
+            Expression e = compile(s);
+            System.out.printf("%-26s → %-36s = %s%n", s, e, e.evaluate());
+        }
+        for (String bad : new String[] { "2 +", "(1 + 2", "foo(3)", "3 $ 4", "min(1)" }) {
+            try {
+                compile(bad);
+            } catch (ExpressionException ex) {
+                System.out.printf("%-26s ✗ %s%n", bad, ex.getMessage());
+            }
+        }
+
+        String formula = "(85.5 * 3 + 92 * 4 + 78.25 * 3) / (3 + 4 + 3)";
+        int rounds = 1_000_000;
+        double sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++)
+            sink += compile(formula).evaluate();
+        long reparse = System.nanoTime() - start;
+        Expression compiled = compile(formula);
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++)
+            sink += compiled.evaluate();
+        long reuse = System.nanoTime() - start;
+        System.out.printf("%n%,d evaluations: parse every time %.1f ms, compile once %.1f ms (%.0fx)  [%s]%n", rounds,
+                reparse / 1e6, reuse / 1e6, (double) reparse / reuse, sink > 0 ? "ok" : "?");
+    }
+}
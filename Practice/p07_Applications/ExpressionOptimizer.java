@@ -0,0 +1,283 @@
+/**
+ * ExpressionOptimizer.java — Simplifying a Formula Before Running It a Million Times
+ * ==================================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: People write formulas for readability, not speed:
+ *
+ *        (q1 * (100 / 100) - 0) * 3 + (q1 * (100 / 100) - 0) ^ 2
+ *
+ *    Evaluated as written, every row recomputes 100 / 100, multiplies by
+ *    the 1 it produced, subtracts 0, and then does it all again on the right.
+ *    Rewriting the TREE once saves that work on every row:
+ *
+ *      CONSTANT FOLDING       100 / 100            →  1
+ *      IDENTITY ELIMINATION   x * 1, x - 0, x ^ 1  →  x
+ *      STRENGTH REDUCTION     x ^ 2 → x * x,  x * 2 → x + x,  x / 4 → x * 0.25
+ *                             (the first two only for a variable x: for a
+ *                             subtree the tree walker would evaluate it twice)
+ *      COMMON SUBEXPRESSIONS  equal subtrees become ONE shared node
+ *
+ *    Rules are applied bottom-up, so each node sees already-simplified
+ *    children, and one pass reaches a fixed point.
+ *
+ *    CSE uses HASH-CONSING: every node the optimizer builds is looked up in
+ *    a map of nodes built so far, and an equal one is reused. Records give
+ *    structural equals/hashCode for free, so "q1 * 3" built twice becomes
+ *    one object. The result is a DAG rather than a tree; the interpreter
+ *    still walks it as a tree, but ExpressionCompiler's bytecode tier spots
+ *    a node that is reached twice, computes it once and keeps it in a local.
+ *
+ *    Every rewrite must give the SAME double, not just a close one:
+ *      x * 2 → x + x     exact (both are one correctly-rounded operation)
+ *      x / 4 → x * 0.25  exact only because 0.25 is a power of two
+ *      x / 3 → x * (1/3) NOT done: 1/3 is already rounded
+ *      x * 0 → 0         NOT done: wrong for NaN, infinity and -x
+ *      x + 0 → x         NOT done: -0.0 + 0 is 0.0, and 1 / -0.0 is
+ *                        -Infinity — the sign of a zero is observable
+ *      x - 0 → x         exact: x - 0 is x + -0.0, which never changes x
+ *
+ *    Folding happens in double arithmetic, so an optimized tree is for the
+ *    double tiers only — DecimalEvaluator should get the original one.
+ *    User operators and functions are never folded: nothing says they are
+ *    pure.
+ *
+ * Topics covered:
+ *   1. Tree rewriting with pattern matching (instanceof patterns on records)
+ *   2. Hash-consing: structural sharing through value equality
+ *   3. What floating point allows a compiler to change, and what it doesn't
+ *
+ * 🔗 SEE ALSO: p07_Applications/ExpressionEngine.java (the AST)
+ * 🔗 SEE ALSO: p07_Applications/ExpressionCompiler.java (shared nodes become locals)
+ */
+package p07_Applications;
+
+import java.util.*;
+
+import p07_Applications.ExpressionCompiler.DoubleEvaluator;
+import p07_Applications.ExpressionEngine.*;
+import p07_Applications.OperatorRegistry.Operator;
+
+public class ExpressionOptimizer {
+
+    private static final Operator ADD = OperatorRegistry.STANDARD.operator('+');
+    private static final Operator MULTIPLY = OperatorRegistry.STANDARD.operator('*');
+
+    private final Map<Node, Node> canonical = new HashMap<>();
+    private int folded;
+    private int identities;
+    private int reduced;
+    private int shared;
+
+    /** Optimizes one expression; the optimizer keeps counts of what it did. */
+    Expression optimize(Expression expression) {
+        canonical.clear();
+        return expression.withRoot(simplify(expression.getRoot()));
+    }
+
+    String stats() {
+        return String.format("folded %d, identities %d, strength-reduced %d, shared %d", folded, identities, reduced,
+                shared);
+    }
+
+    private Node simplify(Node node) {
+        if (node instanceof Neg neg)
+            return negate(simplify(neg.operand()));
+        if (node instanceof Binary b) {
+            Node left = simplify(b.left());
+            Node right = simplify(b.right());
+            if (!b.operator().builtin())
+                return intern(new Binary(b.operator(), left, right));
+            if (left instanceof Num && right instanceof Num) {
+                folded++;
+                return intern(new Num(new Binary(b.operator(), left, right).eval(null)));
+            }
+            Node rewritten = rewrite(b.op(), left, right);
+            return rewritten != null ? rewritten : intern(new Binary(b.operator(), left, right));
+        }
+        if (node instanceof Call call) {
+            List<Node> args = new ArrayList<>(call.args().size());
+            boolean constant = call.function().builtin() != null;
+            for (Node arg : call.args()) {
+                Node simplified = simplify(arg);
+                args.add(simplified);
+                constant &= simplified instanceof Num;
+            }
+            Call rebuilt = new Call(call.function(), args);
+            if (constant) {
+                folded++;
+                return intern(new Num(rebuilt.eval(null)));
+            }
+            return intern(rebuilt);
+        }
+        return intern(node); // Num, Var
+    }
+
+    /** The algebraic rules for a built-in operator with at most one constant side, or null if none applies. */
+    private Node rewrite(char op, Node left, Node right) {
+        double l = left instanceof Num n ? n.value() : Double.NaN;
+        double r = right instanceof Num n ? n.value() : Double.NaN;
+        switch (op) {
+            case '+' -> { // only -0.0 is an exact additive identity
+                if (isNegativeZero(r))
+                    return identity(left);
+                if (isNegativeZero(l))
+                    return identity(right);
+            }
+            case '-' -> {
+                if (r == 0 && !isNegativeZero(r))
+                    return identity(left);
+                if (isNegativeZero(l)) { // -0.0 - x is exactly -x
+                    identities++;
+                    return negate(right);
+                }
+            }
+            case '*' -> {
+                if (r == 1)
+                    return identity(left);
+                if (l == 1)
+                    return identity(right);
+                if (r == -1 || l == -1) {
+                    identities++;
+                    return negate(r == -1 ? left : right);
+                }
+                Node doubled = r == 2 ? left : l == 2 ? right : null;
+                if (doubled instanceof Var) { // an add is cheaper than a multiply on some CPUs, never dearer
+                    reduced++;
+                    return intern(new Binary(ADD, doubled, doubled));
+                }
+            }
+            case '/' -> {
+                if (r == 1)
+                    return identity(left);
+                if (r == -1) {
+                    identities++;
+                    return negate(left);
+                }
+                if (exactReciprocal(r)) {
+                    reduced++;
+                    return intern(new Binary(MULTIPLY, left, intern(new Num(1 / r))));
+                }
+            }
+            case '^' -> {
+                if (r == 1)
+                    return identity(left);
+                if (r == 0) { // Math.pow(x, 0) is 1 even for NaN
+                    identities++;
+                    return intern(new Num(1.0));
+                }
+                if (r == 2 && (left instanceof Var || left instanceof Num)) {
+                    // Only for leaves: a tree walker would evaluate a bigger x twice.
+                    // ExpressionCompiler already emits (big)^2 as dup2; dmul.
+                    reduced++;
+                    return intern(new Binary(MULTIPLY, left, left));
+                }
+            }
+            default -> {
+            }
+        }
+        return null;
+    }
+
+    /** -operand, folding constants and -(-x). */
+    private Node negate(Node operand) {
+        if (operand instanceof Num n) {
+            folded++;
+            return intern(new Num(-n.value()));
+        }
+        if (operand instanceof Neg inner) {
+            identities++;
+            return inner.operand();
+        }
+        return intern(new Neg(operand));
+    }
+
+    private Node identity(Node kept) {
+        identities++;
+        return kept;
+    }
+
+    private static boolean isNegativeZero(double c) {
+        return Double.doubleToRawLongBits(c) == Long.MIN_VALUE;
+    }
+
+    /** True if 1 / c is exact: c is a power of two whose reciprocal is still a normal double. */
+    private static boolean exactReciprocal(double c) {
+        if (c == 0 || Double.isNaN(c) || Double.isInfinite(c))
+            return false;
+        long mantissa = Double.doubleToRawLongBits(c) & 0x000F_FFFF_FFFF_FFFFL;
+        int exponent = Math.getExponent(c);
+        return mantissa == 0 && exponent > Double.MIN_EXPONENT && -exponent < Double.MAX_EXPONENT;
+    }
+
+    /** Returns the node already built with this shape, if any, so equal subtrees are one object. */
+    private Node intern(Node node) {
+        Node existing = canonical.putIfAbsent(node, node);
+        if (existing == null)
+            return node;
+        if (!(existing instanceof Num || existing instanceof Var))
+            shared++;
+        return existing;
+    }
+
+    // =====================================================================
+    // MAIN — rewrites, then rows per second before and after
+    // =====================================================================
+    public static void main(String[] args) {
+        List<String> vars = List.of("q1", "q2", "final", "bonus");
+        ExpressionOptimizer optimizer = new ExpressionOptimizer();
+        for (String s : new String[] { "x * 1 - 0", "x + 0", "2 * 3 * x", "x ^ 2", "y / 8", "-(-x) * (10 / 5)",
+                "sqrt(16) * x ^ 1", "(x + y) * (x + y)", "-0 - x", "x / 3" }) {
+            Expression e = ExpressionEngine.compile(s, List.of("x", "y"));
+            System.out.printf("  %-20s → %s%n", s, optimizer.optimize(e));
+        }
+        System.out.println("  " + optimizer.stats());
+
+        // A formula as people write them: unit conversions, weights of 1, a repeated term
+        String formula = "((q1 * (100 / 100) + q2 * 1) / 2 * 0.7 + final * (30 / 100) - 0)"
+                + " + ((q1 * (100 / 100) + q2 * 1) / 2 * 0.7 + final * (30 / 100) - 0) ^ 2 / 1000"
+                + " + max(0, bonus - 2 * 1) ^ 2 / (10 * 10)";
+        Expression original = ExpressionEngine.compile(formula, vars);
+        Expression optimized = new ExpressionOptimizer().optimize(original);
+        System.out.println("\nOriginal:  " + original);
+        System.out.println("Optimized: " + optimized);
+
+        Random random = new Random(45);
+        double[][] rows = new double[1_000_000][];
+        for (int i = 0; i < rows.length; i++)
+            rows[i] = new double[] { 50 + random.nextInt(50), 50 + random.nextInt(50), 40 + random.nextInt(60),
+                    random.nextInt(10) };
+
+        Map<String, DoubleEvaluator[]> tiers = new LinkedHashMap<>(); // {original, optimized}
+        tiers.put("interpreted", new DoubleEvaluator[] { original::evaluate, optimized::evaluate });
+        tiers.put("closures", new DoubleEvaluator[] { ExpressionCompiler.toClosures(original.getRoot()),
+                ExpressionCompiler.toClosures(optimized.getRoot()) });
+        tiers.put("bytecode", new DoubleEvaluator[] { ExpressionCompiler.toBytecode(original.getRoot()),
+                ExpressionCompiler.toBytecode(optimized.getRoot()) });
+        double expected = 0;
+        for (double[] row : rows)
+            expected += original.evaluate(row);
+        System.out.println("\n1,000,000 rows, original vs optimized (rounds interleaved, best of 10):");
+        for (Map.Entry<String, DoubleEvaluator[]> tier : tiers.entrySet()) {
+            long[] best = { Long.MAX_VALUE, Long.MAX_VALUE };
+            boolean same = true;
+            for (int round = 0; round < 10; round++) { // first rounds warm up the JIT
+                for (int k = 0; k < 2; k++) {
+                    DoubleEvaluator eval = tier.getValue()[k];
+                    long start = System.nanoTime();
+                    double sum = 0;
+                    for (double[] row : rows)
+                        sum += eval.eval(row);
+                    best[k] = Math.min(best[k], System.nanoTime() - start);
+                    same &= sum == expected;
+                }
+            }
+            System.out.printf("  %-12s %6.1f → %6.1f M rows/s  (%.2fx)  %s%n", tier.getKey(),
+                    rows.length / (best[0] / 1e9) / 1e6, rows.length / (best[1] / 1e9) / 1e6,
+                    (double) best[0] / best[1], same ? "same results" : "RESULTS DIFFER");
+        }
+        // Straight-line bytecode is C2's home turf: its own value numbering already folds
+        // and shares the same work, so the rewrite pays off in the tiers the JIT can't see through.
+        System.out.println("  (bytecode: the JIT performs the same folding and CSE on its own)");
+    }
+}
@@ -0,0 +1,289 @@
+/**
+ * NumberScanner.java — Parsing Numbers in Place, Without Substrings
+ * ==================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: Double.parseDouble(text.substring(a, b)) copies the digits
+ *    into a new String and then walks them again. Scanner.nextDouble() is
+ *    worse: it matches a large regex first. But the digits are already
+ *    sitting in the input — we can read them where they are.
+ *
+ *    The scanner walks "123.45e-2" once, collecting
+ *        mantissa = 12345  (as a long)      exponent = -2 - 2 = -4
+ *    and the answer is mantissa × 10^exponent.
+ *
+ *    CORRECT ROUNDING is the hard part: the exact decimal value usually
+ *    falls between two doubles and we must pick the nearer one. The FAST
+ *    PATH (Clinger, 1990) covers almost every real-world number:
+ *
+ *      if mantissa < 2^53 and |exponent| ≤ 22, then both mantissa and
+ *      10^|exponent| are EXACT doubles, and one IEEE multiply or divide
+ *      rounds correctly — so m * 1e5 or m / 1e4 is the right answer.
+ *
+ *    Also exact: exponent 0 with up to 18 digits ((double) long rounds
+ *    correctly). Anything else (more significant digits, huge exponents)
+ *    falls back to Double.parseDouble — correct, but it allocates.
+ *
+ * Topics covered:
+ *   1. Single-pass, allocation-free lexing over CharSequence and byte[]
+ *   2. Floating-point representation: which values are exact
+ *   3. Fast path + slow fallback
+ *
+ * 🔗 SEE ALSO: p07_Applications/ExpressionEngine.java (its tokenizer uses this)
+ */
+package p07_Applications;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public class NumberScanner {
+
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10; // exact up to 1e22
+    }
+
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_DIGITS = 18; // 10^18 - 1 always fits in a long
+
+    // result of the last successful scan
+    private double value;
+    private int fallbacks;
+
+    // digits collected by the current scan
+    private long mantissa;
+    private int significant;
+    private int digits;
+    private int exponent;
+    private boolean truncated;
+
+    double value() {
+        return value;
+    }
+
+    /** How many scans needed the Double.parseDouble slow path. */
+    int fallbacks() {
+        return fallbacks;
+    }
+
+    /**
+     * Scans [+-] digits [. digits] [(e|E) [+-] digits] starting at start.
+     * Returns the index just past the number, or -1 if there is no number
+     * there. An 'e' not followed by digits is left unconsumed.
+     */
+    int scan(CharSequence s, int start) {
+        int limit = s.length();
+        int pos = start;
+        boolean negative = false;
+        if (pos < limit && (s.charAt(pos) == '+' || s.charAt(pos) == '-'))
+            negative = s.charAt(pos++) == '-';
+        reset();
+        while (pos < limit && isDigit(s.charAt(pos)))
+            addDigit(s.charAt(pos++) - '0', false);
+        if (pos < limit && s.charAt(pos) == '.') {
+            pos++;
+            while (pos < limit && isDigit(s.charAt(pos)))
+                addDigit(s.charAt(pos++) - '0', true);
+        }
+        if (digits == 0)
+            return -1;
+        if (pos < limit && (s.charAt(pos) == 'e' || s.charAt(pos) == 'E')) {
+            int mark = pos++;
+            boolean negativeExp = false;
+            if (pos < limit && (s.charAt(pos) == '+' || s.charAt(pos) == '-'))
+                negativeExp = s.charAt(pos++) == '-';
+            if (pos < limit && isDigit(s.charAt(pos))) {
+                int exp = 0;
+                while (pos < limit && isDigit(s.charAt(pos))) {
+                    if (exp < 100_000)
+                        exp = exp * 10 + (s.charAt(pos) - '0');
+                    pos++;
+                }
+                exponent += negativeExp ? -exp : exp;
+            } else {
+                pos = mark;
+            }
+        }
+        if (!finish(negative)) {
+            fallbacks++;
+            value = Double.parseDouble(s.subSequence(start, pos).toString());
+        }
+        return pos;
+    }
+
+    /** Same as scan(CharSequence, int), over ASCII bytes in [start, limit). */
+    int scan(byte[] s, int start, int limit) {
+        int pos = start;
+        boolean negative = false;
+        if (pos < limit && (s[pos] == '+' || s[pos] == '-'))
+            negative = s[pos++] == '-';
+        reset();
+        while (pos < limit && isDigit((char) s[pos]))
+            addDigit(s[pos++] - '0', false);
+        if (pos < limit && s[pos] == '.') {
+            pos++;
+            while (pos < limit && isDigit((char) s[pos]))
+                addDigit(s[pos++] - '0', true);
+        }
+        if (digits == 0)
+            return -1;
+        if (pos < limit && (s[pos] == 'e' || s[pos] == 'E')) {
+            int mark = pos++;
+            boolean negativeExp = false;
+            if (pos < limit && (s[pos] == '+' || s[pos] == '-'))
+                negativeExp = s[pos++] == '-';
+            if (pos < limit && isDigit((char) s[pos])) {
+                int exp = 0;
+                while (pos < limit && isDigit((char) s[pos])) {
+                    if (exp < 100_000)
+                        exp = exp * 10 + (s[pos] - '0');
+                    pos++;
+                }
+                exponent += negativeExp ? -exp : exp;
+            } else {
+                pos = mark;
+            }
+        }
+        if (!finish(negative)) {
+            fallbacks++;
+            value = Double.parseDouble(new String(s, start, pos - start, StandardCharsets.ISO_8859_1));
+        }
+        return pos;
+    }
+
+    // ── shared core ──
+
+    private void reset() {
+        mantissa = 0;
+        significant = 0;
+        digits = 0;
+        exponent = 0;
+        truncated = false;
+    }
+
+    /** digits counts every digit seen (for "is there a number"); only 18 significant ones are kept. */
+    private void addDigit(int d, boolean fraction) {
+        if (mantissa == 0 && d == 0) { // leading zeros carry no information
+            digits++;
+            if (fraction)
+                exponent--;
+            return;
+        }
+        if (significant < MAX_DIGITS) {
+            mantissa = mantissa * 10 + d;
+            significant++;
+            if (fraction)
+                exponent--;
+        } else {
+            if (d != 0)
+                truncated = true;
+            if (!fraction)
+                exponent++;
+        }
+        digits++;
+    }
+
+    /** Computes value on the fast path; returns false if the slow path is needed. */
+    private boolean finish(boolean negative) {
+        double result;
+        if (mantissa == 0) {
+            result = 0.0;
+        } else if (truncated) {
+            return false;
+        } else if (exponent == 0) {
+            result = mantissa; // long → double rounds correctly
+        } else if (mantissa <= MAX_EXACT_MANTISSA && exponent > 0 && exponent < POWERS_OF_TEN.length) {
+            result = mantissa * POWERS_OF_TEN[exponent];
+        } else if (mantissa <= MAX_EXACT_MANTISSA && exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            result = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return false;
+        }
+        value = negative ? -result : result;
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // =====================================================================
+    // MAIN — correctness against Double.parseDouble, then MB/s
+    // =====================================================================
+    public static void main(String[] args) {
+        Random random = new Random(40);
+        StringBuilder text = new StringBuilder();
+        int count = 0;
+        while (text.length() < 16_000_000) {
+            switch (random.nextInt(5)) {
+                case 0 -> text.append(random.nextInt(100_000));
+                case 1 -> text.append(String.format("%.2f", random.nextDouble() * 1000));
+                case 2 -> text.append(random.nextDouble() * 1e6);
+                case 3 -> text.append(random.nextInt(1000)).append('e').append(random.nextInt(40) - 20);
+                default -> text.append(String.format("%.3e", random.nextGaussian() * 1e-8));
+            }
+            text.append(' ');
+            count++;
+        }
+        // Awkward cases for the slow path and rounding
+        for (String hard : new String[] { "9007199254740993", "0.1", "123456789012345678901234567890",
+                "2.2250738585072014e-308", "1e400", "4.9e-324", "0.000000000000000000000000001",
+                "17976931348623157e292", "00000.00000125", "7.", ".5" }) {
+            text.append(hard).append(' ');
+            count++;
+        }
+        String input = text.toString();
+        byte[] bytes = input.getBytes(StandardCharsets.ISO_8859_1);
+
+        NumberScanner scanner = new NumberScanner();
+        int mismatches = 0;
+        for (int pos = 0; pos < input.length(); pos++) {
+            int end = scanner.scan(input, pos);
+            String expectedText = input.substring(pos, end);
+            if (Double.doubleToLongBits(scanner.value()) != Double.doubleToLongBits(Double.parseDouble(expectedText))) {
+                mismatches++;
+                System.out.println("  mismatch: " + expectedText + " → " + scanner.value());
+            }
+            pos = end;
+        }
+        System.out.printf("%,d numbers checked against Double.parseDouble: %d mismatches, %d slow-path fallbacks%n",
+                count, mismatches, scanner.fallbacks());
+
+        double mb = bytes.length / 1e6;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            double sum1 = 0;
+            for (int pos = 0; pos < input.length(); pos++) {
+                int end = input.indexOf(' ', pos);
+                sum1 += Double.parseDouble(input.substring(pos, end));
+                pos = end;
+            }
+            long substring = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            double sum2 = 0;
+            for (int pos = 0; pos < input.length(); pos++) {
+                pos = scanner.scan(input, pos);
+                sum2 += scanner.value();
+            }
+            long chars = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            double sum3 = 0;
+            for (int pos = 0; pos < bytes.length; pos++) {
+                pos = scanner.scan(bytes, pos, bytes.length);
+                sum3 += scanner.value();
+            }
+            long raw = System.nanoTime() - start;
+
+            if (round == 4) {
+                System.out.printf("substring + parseDouble: %6.1f MB/s%n", mb / (substring / 1e9));
+                System.out.printf("scan(CharSequence):      %6.1f MB/s%n", mb / (chars / 1e9));
+                System.out.printf("scan(byte[]):            %6.1f MB/s%n", mb / (raw / 1e9));
+                System.out.println("sums agree: " + (sum1 == sum2 && sum2 == sum3));
+            }
+        }
+    }
+}
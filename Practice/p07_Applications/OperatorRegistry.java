@@ -0,0 +1,266 @@
+/**
+ * OperatorRegistry.java — One Table for Every Operator and Function
+ * ==================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: An operator is just DATA: a symbol, a precedence, an
+ *    associativity and the function it computes. Put that data in one
+ *    table and the tokenizer, the parser and the evaluators all read it —
+ *    adding an operator becomes one register(...) call, not an edit to
+ *    three switch statements.
+ *
+ *    Lookup must be cheap: the tokenizer asks "is this char an operator?"
+ *    for every character it meets. Operator symbols are ASCII, so the table
+ *    is an array of 128 slots indexed by the char itself:
+ *
+ *        bySymbol['+'] → Operator('+', 1, LEFT, (a, b) -> a + b)
+ *        bySymbol['#'] → null   (not an operator)
+ *
+ *    One bounds check and one array load — no hashing, no boxing.
+ *
+ *    The implementation is a DoubleBinaryOperator (double in, double out),
+ *    so EnumDemo.Operation constants, MathOperation lambdas and plain
+ *    method references like Math::hypot all plug in the same way.
+ *
+ *    BUILT-IN vs USER: the standard operators (+ - * / % ^) are flagged
+ *    built-in, and the evaluators keep their hard-wired arithmetic for
+ *    them. Anything registered later — including a replacement for a
+ *    built-in symbol — goes through its DoubleBinaryOperator. The bytecode
+ *    tier of ExpressionCompiler calls it from a per-expression class, where
+ *    the call site only ever sees that one lambda; the JIT inlines it, so a
+ *    user function costs the same as Math.sqrt.
+ *
+ * Topics covered:
+ *   1. Table-driven design: behaviour as data
+ *   2. Direct-indexed arrays as O(1) maps over small key spaces
+ *   3. Primitive functional interfaces (java.util.function.Double*)
+ *
+ * 🔗 SEE ALSO: p07_Applications/ExpressionEngine.java (the tokenizer and parser read this table)
+ * 🔗 SEE ALSO: p02_OOP/EnumDemo.java (Operation implements DoubleBinaryOperator)
+ * 🔗 SEE ALSO: p03_Interfaces/FunctionalInterfaceDemo.java (MathOperation)
+ */
+package p07_Applications;
+
+import java.util.*;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+import p02_OOP.EnumDemo.Operation;
+import p03_Interfaces.FunctionalInterfaceDemo.MathOperation;
+import p07_Applications.ExpressionCompiler.DoubleEvaluator;
+import p07_Applications.ExpressionEngine.Expression;
+import p07_Applications.ExpressionEngine.Function;
+
+public class OperatorRegistry {
+
+    // Precedence levels of the standard operators; unary minus sits between 2 and 4
+    static final int ADDITIVE = 1;
+    static final int MULTIPLICATIVE = 2;
+    static final int POWER = 4;
+
+    /** Symbols the tokenizer already gives a meaning to. */
+    private static final String RESERVED = "().,_";
+
+    enum Associativity {
+        LEFT, RIGHT
+    }
+
+    record Operator(char symbol, int precedence, Associativity associativity, DoubleBinaryOperator function,
+            boolean builtin) {
+        boolean rightAssociative() {
+            return associativity == Associativity.RIGHT;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(symbol);
+        }
+    }
+
+    /**
+     * A named function of one or two arguments. Built-ins carry their
+     * Function constant; user functions carry only the lambda for their arity.
+     */
+    record FunctionDef(String name, int arity, DoubleUnaryOperator unary, DoubleBinaryOperator binary,
+            Function builtin) {
+        double apply(double a, double b) {
+            if (builtin != null)
+                return builtin.apply(a, b);
+            return arity == 1 ? unary.applyAsDouble(a) : binary.applyAsDouble(a, b);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /** The standard table, shared and read-only: what compile(source) uses. */
+    static final OperatorRegistry STANDARD = standard().freeze();
+
+    private final Operator[] bySymbol = new Operator[128];
+    private final Map<String, FunctionDef> functions = new HashMap<>();
+    private boolean frozen;
+
+    /** A new, modifiable table holding the IEEE operators and the built-in functions. */
+    static OperatorRegistry standard() {
+        OperatorRegistry registry = new OperatorRegistry();
+        registry.put(new Operator('+', ADDITIVE, Associativity.LEFT, (a, b) -> a + b, true));
+        registry.put(new Operator('-', ADDITIVE, Associativity.LEFT, (a, b) -> a - b, true));
+        registry.put(new Operator('*', MULTIPLICATIVE, Associativity.LEFT, (a, b) -> a * b, true));
+        registry.put(new Operator('/', MULTIPLICATIVE, Associativity.LEFT, (a, b) -> a / b, true));
+        registry.put(new Operator('%', MULTIPLICATIVE, Associativity.LEFT, (a, b) -> a % b, true));
+        registry.put(new Operator('^', POWER, Associativity.RIGHT, Math::pow, true));
+        for (Function f : Function.values())
+            registry.functions.put(f.toString(), new FunctionDef(f.toString(), f.getArity(),
+                    f.getArity() == 1 ? a -> f.apply(a, 0.0) : null, f.getArity() == 2 ? f::apply : null, f));
+        return registry;
+    }
+
+    /** Adds or replaces a binary operator. The symbol must be printable ASCII punctuation. */
+    OperatorRegistry register(char symbol, int precedence, Associativity associativity, DoubleBinaryOperator function) {
+        Objects.requireNonNull(function, "function");
+        Objects.requireNonNull(associativity, "associativity");
+        if (symbol <= ' ' || symbol >= 127 || Character.isLetterOrDigit(symbol) || RESERVED.indexOf(symbol) >= 0)
+            throw new IllegalArgumentException("Not usable as an operator: '" + symbol + "'");
+        if (precedence < 1)
+            throw new IllegalArgumentException("precedence must be at least 1: " + precedence);
+        put(new Operator(symbol, precedence, associativity, function, false));
+        return this;
+    }
+
+    /** Registers an EnumDemo.Operation under its own symbol, at the usual level for + - or * /. */
+    OperatorRegistry register(Operation operation) {
+        int precedence = switch (operation) {
+            case ADD, SUBTRACT -> ADDITIVE;
+            case MULTIPLY, DIVIDE -> MULTIPLICATIVE;
+        };
+        return register(operation.symbol(), precedence, Associativity.LEFT, operation);
+    }
+
+    /** Adds or replaces a one-argument function. */
+    OperatorRegistry function(String name, DoubleUnaryOperator function) {
+        Objects.requireNonNull(function, "function");
+        putFunction(new FunctionDef(checkName(name), 1, function, null, null));
+        return this;
+    }
+
+    /** Adds or replaces a two-argument function. */
+    OperatorRegistry function(String name, DoubleBinaryOperator function) {
+        Objects.requireNonNull(function, "function");
+        putFunction(new FunctionDef(checkName(name), 2, null, function, null));
+        return this;
+    }
+
+    /** The operator for c, or null. O(1): one bounds check, one array load. */
+    Operator operator(char c) {
+        return c < bySymbol.length ? bySymbol[c] : null;
+    }
+
+    FunctionDef function(String name) {
+        return functions.get(name);
+    }
+
+    /** Registered operators in symbol order. */
+    List<Operator> operators() {
+        List<Operator> all = new ArrayList<>();
+        for (Operator op : bySymbol)
+            if (op != null)
+                all.add(op);
+        return all;
+    }
+
+    /** Compiles source against this table. */
+    Expression compile(String source, String... variables) {
+        return ExpressionEngine.compile(source, List.of(variables), this);
+    }
+
+    private OperatorRegistry freeze() {
+        frozen = true;
+        return this;
+    }
+
+    private void put(Operator op) {
+        checkModifiable();
+        bySymbol[op.symbol()] = op;
+    }
+
+    private void putFunction(FunctionDef def) {
+        checkModifiable();
+        functions.put(def.name(), def);
+    }
+
+    private void checkModifiable() {
+        if (frozen)
+            throw new UnsupportedOperationException("The standard registry is shared; use OperatorRegistry.standard()");
+    }
+
+    private static String checkName(String name) {
+        if (name.isEmpty() || !Character.isLetter(name.charAt(0)))
+            throw new IllegalArgumentException("Function names start with a letter: '" + name + "'");
+        for (int i = 1; i < name.length(); i++)
+            if (!Character.isLetterOrDigit(name.charAt(i)) && name.charAt(i) != '_')
+                throw new IllegalArgumentException("Not a valid function name: '" + name + "'");
+        return name;
+    }
+
+    // =====================================================================
+    // MAIN — custom operators and functions, and what they cost
+    // =====================================================================
+    public static void main(String[] args) {
+        MathOperation distance = (a, b) -> Math.abs(a - b);
+        OperatorRegistry registry = standard()
+                .register('@', MULTIPLICATIVE, Associativity.LEFT, Math::hypot) // 3 @ 4 = 5
+                .register('~', ADDITIVE, Associativity.LEFT, distance) // a MathOperation is a DoubleBinaryOperator
+                .register(Operation.DIVIDE) // "/" now throws on division by zero, like EnumDemo
+                .function("clamp01", x -> Math.max(0, Math.min(1, x)))
+                .function("root", Math::sqrt);
+
+        System.out.println("Operators:");
+        for (Operator op : registry.operators())
+            System.out.printf("  %s  precedence %d  %-5s  %s%n", op, op.precedence(), op.associativity(),
+                    op.builtin() ? "built-in" : "user");
+        for (String s : new String[] { "3 @ 4", "1 + 3 @ 4 * 2", "2 ~ 9", "clamp01(1.7) + root(16)", "2 ^ 3 ^ 2", "7 / 0" }) {
+            try {
+                System.out.printf("  %-24s = %s%n", s, registry.compile(s).evaluate());
+            } catch (ArithmeticException e) {
+                System.out.printf("  %-24s ✗ %s%n", s, e.getMessage());
+            }
+        }
+        System.out.printf("  %-24s = %s   (standard table: IEEE division)%n", "7 / 0",
+                ExpressionEngine.compile("7 / 0").evaluate());
+
+        // The same formula with a built-in and with a user function, in every tier
+        Expression builtin = registry.compile("sqrt(x * x + y) * 2 + x", "x", "y");
+        Expression user = registry.compile("root(x * x + y) * 2 + x", "x", "y");
+        double[][] rows = new double[1_000_000][];
+        Random random = new Random(44);
+        for (int i = 0; i < rows.length; i++)
+            rows[i] = new double[] { random.nextDouble() * 100, random.nextDouble() * 100 };
+
+        System.out.println("\n1,000,000 rows of sqrt(...) vs root(...):");
+        Map<String, DoubleEvaluator[]> tiers = new LinkedHashMap<>();
+        tiers.put("interpreted", new DoubleEvaluator[] { builtin::evaluate, user::evaluate });
+        tiers.put("closures", new DoubleEvaluator[] { ExpressionCompiler.toClosures(builtin.getRoot()),
+                ExpressionCompiler.toClosures(user.getRoot()) });
+        tiers.put("bytecode", new DoubleEvaluator[] { ExpressionCompiler.toBytecode(builtin.getRoot()),
+                ExpressionCompiler.toBytecode(user.getRoot()) });
+        for (Map.Entry<String, DoubleEvaluator[]> tier : tiers.entrySet()) {
+            double[] sums = new double[2];
+            long[] best = { Long.MAX_VALUE, Long.MAX_VALUE };
+            for (int round = 0; round < 8; round++) {
+                for (int k = 0; k < 2; k++) {
+                    DoubleEvaluator eval = tier.getValue()[k];
+                    long start = System.nanoTime();
+                    double sum = 0;
+                    for (double[] row : rows)
+                        sum += eval.eval(row);
+                    best[k] = Math.min(best[k], System.nanoTime() - start);
+                    sums[k] = sum;
+                }
+            }
+            System.out.printf("  %-12s built-in %6.1f ms   user %6.1f ms   (results %s)%n", tier.getKey(),
+                    best[0] / 1e6, best[1] / 1e6, sums[0] == sums[1] ? "agree" : "DIFFER");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * StandingAlerts.java — Dean's List / Probation Transition Notifications
+ * =======================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: To find out who just made the Dean's list you COULD take a
+ *    snapshot of deansList(), add a grade, take another snapshot and diff
+ *    them — two full scans and two sorts per grade. But a single grade only
+ *    changes ONE student's GPA, and we already know the GPA before and after.
+ *    Comparing two numbers against two thresholds is O(1).
+ *
+ *    Transitions are queued and handed to listeners in BATCHES — either when
+ *    the queue reaches batchSize or when flush() is called (the repository
+ *    flushes after every batch grade load, the console app after every
+ *    menu action).
+ *
+ * Topics covered:
+ *   1. Observer pattern with batched delivery
+ *   2. Edge detection: react to CHANGES in state, not to state itself
+ *   3. NaN as "no value yet" (students without courses have no standing)
+ *
+ * 🔗 SEE ALSO: p11_DesignPatterns/ObserverPatternDemo.java
+ * 🔗 SEE ALSO: p07_Applications/StudentManagementSystem.java
+ */
+package p07_Applications;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import p07_Applications.StudentManagementSystem.Department;
+import p07_Applications.StudentManagementSystem.Grade;
+import p07_Applications.StudentManagementSystem.Student;
+
+public class StandingAlerts {
+
+    static final double DEANS_LIST_GPA = 3.5;
+    static final double PROBATION_GPA = 2.0;
+
+    enum StandingList {
+        DEANS_LIST("Dean's List"), PROBATION("Academic Probation");
+
+        private final String label;
+
+        StandingList(String label) {
+            this.label = label;
+        }
+
+        /** The list a GPA puts you on, or null (NaN → no courses → no list). */
+        static StandingList of(double gpa) {
+            if (gpa >= DEANS_LIST_GPA)
+                return DEANS_LIST;
+            if (gpa < PROBATION_GPA)
+                return PROBATION;
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    record Transition(Student student, StandingList list, boolean entered, double oldGPA, double newGPA) {
+        @Override
+        public String toString() {
+            return String.format("%s %s %s (GPA %s → %.2f)", student.getName(),
+                    entered ? "entered" : "left", list,
+                    Double.isNaN(oldGPA) ? "—" : String.format("%.2f", oldGPA), newGPA);
+        }
+    }
+
+    @FunctionalInterface
+    interface Listener {
+        void onTransitions(List<Transition> batch);
+    }
+
+    private final int batchSize;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private List<Transition> pending = new ArrayList<>();
+
+    StandingAlerts(int batchSize) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        this.batchSize = batchSize;
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /** O(1): compares the old and new GPA against the two thresholds. */
+    void gpaChanged(Student student, double oldGPA, double newGPA) {
+        StandingList before = StandingList.of(oldGPA);
+        StandingList after = StandingList.of(newGPA);
+        if (before == after || listeners.isEmpty())
+            return;
+        if (before != null)
+            pending.add(new Transition(student, before, false, oldGPA, newGPA));
+        if (after != null)
+            pending.add(new Transition(student, after, true, oldGPA, newGPA));
+        if (pending.size() >= batchSize)
+            flush();
+    }
+
+    /** Delivers everything queued so far as one batch. */
+    void flush() {
+        if (pending.isEmpty())
+            return;
+        List<Transition> batch = Collections.unmodifiableList(pending);
+        pending = new ArrayList<>();
+        for (Listener listener : listeners)
+            listener.onTransitions(batch);
+    }
+
+    // =====================================================================
+    // MAIN
+    // =====================================================================
+    public static void main(String[] args) throws StudentManagementSystem.StudentException {
+        StudentManagementSystem.StudentRepository repo = new StudentManagementSystem.StudentRepository();
+        repo.addStandingListener(batch -> {
+            System.out.println("  🔔 batch of " + batch.size() + ":");
+            batch.forEach(t -> System.out.println("     " + t));
+        });
+
+        Student dan = new Student("Dan", Department.EEE);
+        repo.add(dan);
+        System.out.println("Dan's first grade is an F:");
+        dan.addCourse("EEE201", Grade.F);
+        repo.flushStandingAlerts();
+
+        System.out.println("Two A+ grades pull him through Satisfactory onto the Dean's list:");
+        dan.addCourse("EEE202", Grade.A_PLUS);
+        dan.addCourse("EEE203", Grade.A_PLUS);
+        dan.addCourse("EEE201", Grade.A_PLUS); // retake replaces the F
+        repo.flushStandingAlerts();
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * StudentExporter.java — Background Export Jobs with Progress & Cancellation
+ * ===========================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: Exporting a big roster on the menu thread freezes the whole
+ *    app until the last line hits the disk. Instead we:
+ *      1. take a SNAPSHOT of the roster (cheap, on the menu thread)
+ *      2. hand it to a worker thread that writes the file
+ *      3. return a job handle the user can poll or cancel
+ *
+ *    Because each job owns its own snapshot and its own file, several
+ *    exports (CSV + binary, say) can run in parallel without locking.
+ *
+ * ⚠️ NOTE: The course targets JDK 17, so jobs run on a cached pool of daemon
+ *    platform threads. On JDK 21+ Executors.newVirtualThreadPerTaskExecutor()
+ *    is a drop-in replacement for the pool below.
+ *
+ * Topics covered:
+ *   1. ExecutorService + Future for background work
+ *   2. Cooperative cancellation (Future.cancel + interrupt checks)
+ *   3. Progress reporting with AtomicInteger
+ *   4. Write-to-temp then atomic move (no half-written files)
+ *
+ * 🔗 SEE ALSO: p10_Concurrency/ThreadBasicsDemo.java
+ * 🔗 SEE ALSO: p06_FileIO/FileReadWrite.java
+ */
+package p07_Applications;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import p07_Applications.StudentManagementSystem.Grade;
+import p07_Applications.StudentManagementSystem.StudentRecord;
+
+public class StudentExporter {
+
+    /** Binary files start with "S215" so readers can reject foreign input. */
+    static final int BINARY_MAGIC = 0x53323135;
+
+    enum Format {
+        CSV("csv"), BINARY("bin"), COLUMNAR("scol");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        String getExtension() {
+            return extension;
+        }
+    }
+
+    enum Status {
+        RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    // =====================================================================
+    // EXPORT JOB — handle returned to the caller
+    // =====================================================================
+
+    static final class ExportJob {
+        private final int jobId;
+        private final Format format;
+        private final Path target;
+        private final int total;
+        private final AtomicInteger written = new AtomicInteger();
+        private volatile Future<?> future;
+        private volatile String error;
+        // Written under this: cancel() and the final move are one atomic step each
+        private volatile boolean cancelRequested;
+        private volatile boolean committed; // the target file has been written
+
+        ExportJob(int jobId, Format format, Path target, int total) {
+            this.jobId = jobId;
+            this.format = format;
+            this.target = target;
+            this.total = total;
+        }
+
+        int getJobId() {
+            return jobId;
+        }
+
+        Path getTarget() {
+            return target;
+        }
+
+        /** Fraction of records written so far, 0.0 – 1.0. */
+        double progress() {
+            return total == 0 ? 1.0 : (double) written.get() / total;
+        }
+
+        Status status() {
+            if (committed)
+                return Status.DONE;
+            if (!future.isDone())
+                return Status.RUNNING;
+            if (cancelRequested)
+                return Status.CANCELLED;
+            return error == null ? Status.DONE : Status.FAILED;
+        }
+
+        /**
+         * Interrupts the worker; the partial temp file is deleted. Returns true only
+         * if this call cancelled the job — false, changing nothing, if it had already
+         * finished (DONE or FAILED) or been cancelled.
+         */
+        boolean cancel() {
+            synchronized (this) {
+                if (committed || cancelRequested || future.isDone())
+                    return false;
+                cancelRequested = true;
+            }
+            future.cancel(true);
+            return true;
+        }
+
+        /** Moves temp over the target unless cancel() got in first; true if it moved. */
+        private synchronized boolean commit(Path temp, Path target) throws IOException {
+            if (cancelRequested || Thread.currentThread().isInterrupted())
+                return false;
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return true;
+        }
+
+        /** Blocks until the job finishes (or is cancelled). */
+        void await() throws InterruptedException {
+            try {
+                future.get();
+            } catch (CancellationException | ExecutionException e) {
+                // status() already reports the outcome
+            }
+        }
+
+        @Override
+        public String toString() {
+            String s = String.format("#%d %-6s %-24s %3.0f%% (%d/%d) %s",
+                    jobId, format, target.getFileName(), progress() * 100, written.get(), total, status());
+            return error == null ? s : s + " — " + error;
+        }
+    }
+
+    // =====================================================================
+    // EXPORTER
+    // =====================================================================
+
+    private final ExecutorService pool = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "student-export");
+        t.setDaemon(true);
+        return t;
+    });
+    private final List<ExportJob> jobs = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextJobId = new AtomicInteger(1);
+
+    /**
+     * Starts exporting an already-taken snapshot. Returns immediately.
+     */
+    ExportJob submit(List<StudentRecord> snapshot, Format format, Path target) {
+        ExportJob job = new ExportJob(nextJobId.getAndIncrement(), format, target, snapshot.size());
+        job.future = pool.submit(() -> {
+            try {
+                run(job, snapshot);
+            } catch (InterruptedIOException | ClosedByInterruptException e) {
+                // cancelled while blocked in I/O — nothing to report
+            } catch (IOException | RuntimeException e) {
+                job.error = e.getMessage();
+            }
+            return null;
+        });
+        jobs.add(job);
+        return job;
+    }
+
+    List<ExportJob> getJobs() {
+        return Collections.unmodifiableList(jobs);
+    }
+
+    Optional<ExportJob> findJob(int jobId) {
+        return jobs.stream().filter(j -> j.getJobId() == jobId).findFirst();
+    }
+
+    /** Lets running jobs finish, then stops the worker threads. */
+    void shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(timeout, unit);
+    }
+
+    private void run(ExportJob job, List<StudentRecord> snapshot) throws IOException {
+        Path target = job.getTarget().toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+        boolean finished = false;
+        try {
+            switch (job.format) {
+                case CSV -> writeCsv(job, snapshot, temp);
+                case BINARY -> writeBinary(job, snapshot, temp);
+                case COLUMNAR -> ColumnarRosterFile.write(snapshot, temp, job.written::addAndGet);
+            }
+            finished = job.commit(temp, target);
+        } finally {
+            if (!finished)
+                Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeCsv(ExportJob job, List<StudentRecord> snapshot, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (StudentRecord r : snapshot) {
+                if (Thread.currentThread().isInterrupted())
+                    return;
+                out.write(r.toCSV());
+                out.newLine();
+                job.written.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Layout: magic, count, then per student
+     * id, name (UTF), department ordinal, course count, (course UTF, grade ordinal)*.
+     */
+    private void writeBinary(ExportJob job, List<StudentRecord> snapshot, Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(BINARY_MAGIC);
+            out.writeInt(snapshot.size());
+            for (StudentRecord r : snapshot) {
+                if (Thread.currentThread().isInterrupted())
+                    return;
+                out.writeInt(r.id());
+                out.writeUTF(r.name());
+                out.writeByte(r.department().ordinal());
+                out.writeShort(r.courses().size());
+                for (Map.Entry<String, Grade> e : r.courses().entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeByte(e.getValue().ordinal());
+                }
+                job.written.incrementAndGet();
+            }
+        }
+    }
+
+    // =====================================================================
+    // MAIN — two exports in parallel, one cancelled
+    // =====================================================================
+    public static void main(String[] args) throws Exception {
+        StudentManagementSystem.StudentRepository repo = new StudentManagementSystem.StudentRepository();
+        StudentManagementSystem.Department[] depts = StudentManagementSystem.Department.values();
+        Grade[] grades = Grade.values();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            StudentManagementSystem.Student s = new StudentManagementSystem.Student("Student " + i,
+                    depts[i % depts.length]);
+            for (int c = 0; c < 4; c++)
+                s.addCourse("COURSE" + (100 + random.nextInt(40)), grades[random.nextInt(grades.length)]);
+            repo.add(s);
+        }
+
+        StudentExporter exporter = new StudentExporter();
+        List<StudentRecord> snapshot = repo.snapshot();
+        Path dir = Files.createTempDirectory("export-demo");
+        ExportJob csv = exporter.submit(snapshot, Format.CSV, dir.resolve("roster.csv"));
+        ExportJob bin = exporter.submit(snapshot, Format.BINARY, dir.resolve("roster.bin"));
+        ExportJob doomed = exporter.submit(snapshot, Format.CSV, dir.resolve("doomed.csv"));
+        doomed.cancel();
+
+        while (csv.status() == Status.RUNNING || bin.status() == Status.RUNNING) {
+            exporter.getJobs().forEach(j -> System.out.println("  " + j));
+            Thread.sleep(50);
+        }
+        System.out.println("Final:");
+        exporter.getJobs().forEach(j -> System.out.println("  " + j));
+        System.out.println("CSV size:    " + Files.size(csv.getTarget()) + " bytes");
+        System.out.println("Binary size: " + Files.size(bin.getTarget()) + " bytes");
+        System.out.println("doomed.csv exists? " + Files.exists(dir.resolve("doomed.csv")));
+        exporter.shutdown(5, TimeUnit.SECONDS);
+    }
+}
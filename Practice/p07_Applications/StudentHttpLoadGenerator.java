@@ -0,0 +1,169 @@
+/**
+ * StudentHttpLoadGenerator.java — Closed-Loop Load Test for StudentHttpServer
+ * ============================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: A CLOSED-LOOP load generator has a fixed number of "users".
+ *    Each user sends a request, waits for the answer, then immediately sends
+ *    the next one. Throughput is whatever the server can sustain; latency is
+ *    measured per request and summarised as percentiles:
+ *      - p50: half the requests were faster than this
+ *      - p99: only 1 in 100 requests was slower than this (the "tail")
+ *
+ * ⚠️ GOTCHA: Averages hide tail latency. One 2-second request among 99 fast
+ *    ones barely moves the mean but is exactly what users complain about.
+ *
+ * Usage:
+ *    java p07_Applications.StudentHttpLoadGenerator                 (starts its own server)
+ *    java p07_Applications.StudentHttpLoadGenerator http://host:8080 16 10
+ *                                                   └ base URL       └ users └ seconds
+ *
+ * 🔗 SEE ALSO: p07_Applications/StudentHttpServer.java
+ */
+package p07_Applications;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.*;
+
+import p07_Applications.StudentManagementSystem.Department;
+import p07_Applications.StudentManagementSystem.Grade;
+import p07_Applications.StudentManagementSystem.Student;
+import p07_Applications.StudentManagementSystem.StudentRepository;
+
+public class StudentHttpLoadGenerator {
+
+    /** Per-user results, merged after the run. */
+    private static final class UserStats {
+        long[] latencies = new long[1 << 14];
+        int count;
+        int errors;
+
+        void record(long nanos) {
+            if (count == latencies.length)
+                latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        StudentHttpServer embedded = null;
+        String base;
+        int[] ids;
+        if (args.length > 0) {
+            base = args[0];
+            ids = new int[] { 1000, 1001, 1002, 1003, 1004 };
+        } else {
+            StudentRepository repo = syntheticRoster(10_000);
+            ids = repo.getAll().stream().mapToInt(Student::getId).toArray();
+            embedded = new StudentHttpServer(repo, 0);
+            embedded.start();
+            base = "http://localhost:" + embedded.getPort();
+        }
+
+        System.out.printf("Load test: %s, %d users, %d s%n", base, users, seconds);
+        ExecutorService clientThreads = Executors.newCachedThreadPool();
+        HttpClient client = HttpClient.newBuilder().executor(clientThreads).build();
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        List<Future<UserStats>> futures = new ArrayList<>();
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(seconds);
+
+        for (int u = 0; u < users; u++) {
+            long seed = u;
+            futures.add(pool.submit(() -> runUser(client, base, ids, seed, warmupEnd, end)));
+        }
+
+        long[] all = new long[0];
+        int total = 0;
+        int errors = 0;
+        for (Future<UserStats> f : futures) {
+            UserStats s = f.get();
+            all = Arrays.copyOf(all, total + s.count);
+            System.arraycopy(s.latencies, 0, all, total, s.count);
+            total += s.count;
+            errors += s.errors;
+        }
+        pool.shutdown();
+        clientThreads.shutdown();
+        if (embedded != null)
+            embedded.stop();
+
+        Arrays.sort(all);
+        System.out.printf("  requests:   %,d (%d errors)%n", total, errors);
+        System.out.printf("  throughput: %,.0f req/s%n", total / (double) seconds);
+        if (total > 0) {
+            System.out.printf("  p50:        %.3f ms%n", percentile(all, 50) / 1e6);
+            System.out.printf("  p99:        %.3f ms%n", percentile(all, 99) / 1e6);
+            System.out.printf("  max:        %.3f ms%n", all[total - 1] / 1e6);
+        }
+    }
+
+    /** One closed-loop user: request → wait → next request, until the deadline. */
+    private static UserStats runUser(HttpClient client, String base, int[] ids, long seed,
+            long warmupEnd, long end) {
+        UserStats stats = new UserStats();
+        Random random = new Random(seed);
+        Department[] depts = Department.values();
+        while (true) {
+            long start = System.nanoTime();
+            if (start >= end)
+                return stats;
+            int id = ids[random.nextInt(ids.length)];
+            int roll = random.nextInt(100);
+            HttpRequest request;
+            if (roll < 70) {
+                request = HttpRequest.newBuilder(URI.create(base + "/students/" + id)).build();
+            } else if (roll < 85) {
+                request = HttpRequest.newBuilder(URI.create(base + "/students?name=" + random.nextInt(100))).build();
+            } else if (roll < 90) {
+                request = HttpRequest.newBuilder(URI.create(
+                        base + "/departments/" + depts[random.nextInt(depts.length)].name() + "/students")).build();
+            } else if (roll < 95) {
+                request = HttpRequest.newBuilder(URI.create(base + "/stats")).build();
+            } else {
+                request = HttpRequest.newBuilder(URI.create(base + "/students/" + id + "/grades"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString("course=LOAD" + random.nextInt(20)
+                                + "&grade=" + Grade.values()[random.nextInt(Grade.values().length)].name()))
+                        .build();
+            }
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (start >= warmupEnd) {
+                    if (response.statusCode() >= 400)
+                        stats.errors++;
+                    stats.record(System.nanoTime() - start);
+                }
+            } catch (Exception e) {
+                if (start >= warmupEnd)
+                    stats.errors++;
+            }
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static StudentRepository syntheticRoster(int size) throws StudentManagementSystem.StudentException {
+        StudentRepository repo = new StudentRepository();
+        Department[] depts = Department.values();
+        Grade[] grades = Grade.values();
+        Random random = new Random(11);
+        for (int i = 0; i < size; i++) {
+            Student s = new Student("Student " + i, depts[i % depts.length]);
+            for (int c = 0; c < 5; c++)
+                s.addCourse("COURSE" + (100 + random.nextInt(50)), grades[random.nextInt(grades.length)]);
+            repo.add(s);
+        }
+        return repo;
+    }
+}
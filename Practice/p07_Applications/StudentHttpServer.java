@@ -0,0 +1,515 @@
+/**
+ * StudentHttpServer.java — Embedded HTTP/JSON API for the Student Repository
+ * ===========================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: The console menu only serves one person at a keyboard. A tiny
+ *    HTTP server lets any program (browser, curl, another service) talk to
+ *    the same StudentRepository. The JDK ships one: com.sun.net.httpserver.
+ *
+ *    Endpoints:
+ *      GET  /students/{id}                   one student
+ *      GET  /students?name=ali               search by name
+ *      GET  /departments/{CODE}/students     everyone in a department
+ *      GET  /stats                           roster statistics
+ *      POST /students/{id}/grades            body: course=CSE215&grade=A_PLUS
+ *
+ *    Responses are written with a STREAMING JSON encoder straight into the
+ *    response body (chunked), so a 100k-student listing never exists as one
+ *    giant String in memory.
+ *
+ * ⚠️ NOTE: StudentRepository is not thread-safe, so reads share a read lock
+ *    and grade posts take the write lock. A read holds the lock only while
+ *    it copies what the response needs into small records — never while
+ *    the body goes out, or one slow client would stall every grade post.
+ *    The course targets JDK 17, so each
+ *    request runs on a cached pool thread; on JDK 21+ pass
+ *    Executors.newVirtualThreadPerTaskExecutor() for one virtual thread per
+ *    request.
+ *
+ * Try it:
+ *    java p07_Applications.StudentHttpServer 8080
+ *    curl localhost:8080/students/1000
+ *    curl -d "course=CSE327&grade=A" localhost:8080/students/1000/grades
+ *
+ * Topics covered:
+ *   1. com.sun.net.httpserver: contexts, handlers, executors
+ *   2. Streaming output instead of building big Strings
+ *   3. ReadWriteLock for many readers / few writers
+ *   4. Mapping exceptions to HTTP status codes
+ *
+ * 🔗 SEE ALSO: p07_Applications/StudentHttpLoadGenerator.java
+ * 🔗 SEE ALSO: p10_Concurrency/ThreadBasicsDemo.java
+ */
+package p07_Applications;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import p07_Applications.StudentManagementSystem.Department;
+import p07_Applications.StudentManagementSystem.Grade;
+import p07_Applications.StudentManagementSystem.Student;
+import p07_Applications.StudentManagementSystem.StudentRepository;
+
+public class StudentHttpServer {
+
+    // =====================================================================
+    // STREAMING JSON ENCODER
+    // =====================================================================
+
+    /**
+     * 📌 Writes JSON tokens directly to a Writer. A small stack remembers,
+     * per open object/array, whether a comma is needed before the next item.
+     */
+    static final class JsonWriter implements Closeable {
+        private final Writer out;
+        private boolean[] needsComma = new boolean[16];
+        private int depth;
+        private boolean afterName;
+
+        JsonWriter(Writer out) {
+            this.out = out;
+        }
+
+        JsonWriter beginObject() throws IOException {
+            return open('{');
+        }
+
+        JsonWriter endObject() throws IOException {
+            return close('}');
+        }
+
+        JsonWriter beginArray() throws IOException {
+            return open('[');
+        }
+
+        JsonWriter endArray() throws IOException {
+            return close(']');
+        }
+
+        JsonWriter name(String name) throws IOException {
+            separator();
+            string(name);
+            out.write(':');
+            afterName = true;
+            return this;
+        }
+
+        JsonWriter value(String value) throws IOException {
+            separator();
+            if (value == null)
+                out.write("null");
+            else
+                string(value);
+            return this;
+        }
+
+        JsonWriter value(long value) throws IOException {
+            separator();
+            out.write(Long.toString(value));
+            return this;
+        }
+
+        JsonWriter value(double value) throws IOException {
+            separator();
+            out.write(Double.isFinite(value) ? Double.toString(value) : "null");
+            return this;
+        }
+
+        JsonWriter value(boolean value) throws IOException {
+            separator();
+            out.write(value ? "true" : "false");
+            return this;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private JsonWriter open(char bracket) throws IOException {
+            separator();
+            out.write(bracket);
+            if (++depth == needsComma.length)
+                needsComma = Arrays.copyOf(needsComma, depth * 2);
+            needsComma[depth] = false;
+            return this;
+        }
+
+        private JsonWriter close(char bracket) throws IOException {
+            depth--;
+            out.write(bracket);
+            return this;
+        }
+
+        private void separator() throws IOException {
+            if (afterName) {
+                afterName = false;
+                return;
+            }
+            if (needsComma[depth])
+                out.write(',');
+            needsComma[depth] = true;
+        }
+
+        private void string(String s) throws IOException {
+            out.write('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"' -> out.write("\\\"");
+                    case '\\' -> out.write("\\\\");
+                    case '\n' -> out.write("\\n");
+                    case '\r' -> out.write("\\r");
+                    case '\t' -> out.write("\\t");
+                    default -> {
+                        if (c < 0x20)
+                            out.write(String.format("\\u%04x", (int) c));
+                        else
+                            out.write(c);
+                    }
+                }
+            }
+            out.write('"');
+        }
+    }
+
+    // =====================================================================
+    // SERVER
+    // =====================================================================
+
+    /** Thrown by handlers to send a specific status code with a message. */
+    static final class HttpError extends Exception {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        void handle(HttpExchange exchange, String[] path) throws IOException, HttpError;
+    }
+
+    private final StudentRepository repo;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    StudentHttpServer(StudentRepository repo, int port) throws IOException {
+        this.repo = repo;
+        this.server = HttpServer.create(new InetSocketAddress(port), 128);
+        server.createContext("/students", exchange -> dispatch(exchange, this::students));
+        server.createContext("/departments", exchange -> dispatch(exchange, this::departments));
+        server.createContext("/stats", exchange -> dispatch(exchange, this::stats));
+        server.setExecutor(executor);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void dispatch(HttpExchange exchange, Handler handler) {
+        try {
+            String[] path = Arrays.stream(exchange.getRequestURI().getPath().split("/"))
+                    .filter(p -> !p.isEmpty())
+                    .toArray(String[]::new);
+            // contexts match by prefix: without this, /studentsX would reach the /students handler
+            if (path.length == 0 || !exchange.getHttpContext().getPath().equals("/" + path[0]))
+                throw new HttpError(404, "unknown route");
+            handler.handle(exchange, path);
+        } catch (HttpError e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            sendError(exchange, 500, String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close(); // not try-with-resources: the catch blocks still need the exchange
+        }
+    }
+
+    // ── /students ──
+    private void students(HttpExchange exchange, String[] path) throws IOException, HttpError {
+        String method = exchange.getRequestMethod();
+        if (path.length == 1 && method.equals("GET")) {
+            String name = query(exchange).get("name");
+            if (name == null)
+                throw new HttpError(400, "missing ?name=");
+            List<Summary> found = readLocked(() -> summaries(repo.findByName(name)));
+            respond(exchange, json -> writeStudents(json, found));
+        } else if (path.length == 2 && method.equals("GET")) {
+            int id = parseId(path[1]);
+            Detail student = readLocked(() -> repo.findById(id).map(Detail::of))
+                    .orElseThrow(() -> new HttpError(404, "no student " + id));
+            respond(exchange, json -> writeStudent(json, student));
+        } else if (path.length == 3 && path[2].equals("grades") && method.equals("POST")) {
+            postGrade(exchange, parseId(path[1]));
+        } else {
+            throw new HttpError(404, "unknown route");
+        }
+    }
+
+    private void postGrade(HttpExchange exchange, int id) throws IOException, HttpError {
+        Map<String, String> form = parseForm(new String(exchange.getRequestBody().readAllBytes(),
+                StandardCharsets.UTF_8));
+        String course = form.get("course");
+        if (course == null || course.isBlank())
+            throw new HttpError(400, "missing course");
+        Grade grade;
+        try {
+            grade = Grade.valueOf(String.valueOf(form.get("grade")).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(400, "invalid grade: " + form.get("grade"));
+        }
+
+        Detail updated;
+        lock.writeLock().lock();
+        try {
+            Student s = repo.findById(id).orElseThrow(() -> new HttpError(404, "no student " + id));
+            s.addCourse(course, grade);
+            updated = Detail.of(s);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        respond(exchange, json -> writeStudent(json, updated));
+    }
+
+    // ── /departments/{CODE}/students ──
+    private void departments(HttpExchange exchange, String[] path) throws IOException, HttpError {
+        if (path.length != 3 || !path[2].equals("students") || !exchange.getRequestMethod().equals("GET"))
+            throw new HttpError(404, "unknown route");
+        Department dept;
+        try {
+            dept = Department.valueOf(path[1].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(404, "no department " + path[1]);
+        }
+        List<Summary> members = readLocked(() -> summaries(repo.findByDepartment(dept)));
+        respond(exchange, json -> writeStudents(json, members));
+    }
+
+    // ── /stats ──
+    private void stats(HttpExchange exchange, String[] path) throws IOException, HttpError {
+        Stats stats = readLocked(() -> new Stats(repo.size(), repo.averageGPA().orElse(0.0),
+                repo.topStudent().map(Summary::of), repo.countByDepartment(), repo.avgGPAByDepartment()));
+        respond(exchange, json -> {
+            json.beginObject();
+            json.name("total").value(stats.total());
+            json.name("averageGPA").value(stats.averageGPA());
+            json.name("topStudent");
+            if (stats.top().isPresent())
+                writeStudentSummary(json, stats.top().get());
+            else
+                json.value((String) null);
+            json.name("departments").beginObject();
+            for (Map.Entry<Department, Long> e : stats.counts().entrySet()) {
+                json.name(e.getKey().name()).beginObject()
+                        .name("count").value(e.getValue())
+                        .name("averageGPA").value(stats.averages().getOrDefault(e.getKey(), 0.0))
+                        .endObject();
+            }
+            json.endObject();
+            json.endObject();
+        });
+    }
+
+    // ── Snapshots: copied under the read lock, written after it is released ──
+
+    private record Summary(int id, String name, Department department, double gpa) {
+        static Summary of(Student s) {
+            return new Summary(s.getId(), s.getName(), s.getDepartment(), s.getGPA());
+        }
+    }
+
+    private record Detail(Summary summary, String standing, LocalDate enrollmentDate, Map<String, Grade> courses) {
+        static Detail of(Student s) {
+            return new Detail(Summary.of(s), s.getStanding(), s.getEnrollmentDate(), s.snapshot().courses());
+        }
+    }
+
+    private record Stats(int total, double averageGPA, Optional<Summary> top, Map<Department, Long> counts,
+            Map<Department, Double> averages) {
+    }
+
+    private static List<Summary> summaries(List<Student> students) {
+        List<Summary> result = new ArrayList<>(students.size());
+        for (Student s : students)
+            result.add(Summary.of(s));
+        return result;
+    }
+
+    @FunctionalInterface
+    interface Read<T> {
+        T read() throws HttpError;
+    }
+
+    /** Runs read under the read lock and returns its copy; keep it to copying, not I/O. */
+    private <T> T readLocked(Read<T> read) throws HttpError {
+        lock.readLock().lock();
+        try {
+            return read.read();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── JSON bodies ──
+
+    @FunctionalInterface
+    interface JsonBody {
+        void write(JsonWriter json) throws IOException, HttpError;
+    }
+
+    /**
+     * Streams body as the 200 response, holding no lock. Errors found before
+     * anything is written still become proper status codes; headers go out on first write.
+     */
+    private static void respond(HttpExchange exchange, JsonBody body) throws IOException, HttpError {
+        OutputStream raw = new LazyResponseStream(exchange);
+        JsonWriter json = new JsonWriter(new BufferedWriter(new OutputStreamWriter(raw, StandardCharsets.UTF_8)));
+        body.write(json);
+        json.close();
+    }
+
+    private static void writeStudents(JsonWriter json, List<Summary> students) throws IOException {
+        json.beginArray();
+        for (Summary s : students)
+            writeStudentSummary(json, s);
+        json.endArray();
+    }
+
+    private static void writeStudentSummary(JsonWriter json, Summary s) throws IOException {
+        json.beginObject()
+                .name("id").value(s.id())
+                .name("name").value(s.name())
+                .name("department").value(s.department().name())
+                .name("gpa").value(s.gpa())
+                .endObject();
+    }
+
+    private static void writeStudent(JsonWriter json, Detail d) throws IOException {
+        Summary s = d.summary();
+        json.beginObject()
+                .name("id").value(s.id())
+                .name("name").value(s.name())
+                .name("department").value(s.department().name())
+                .name("gpa").value(s.gpa())
+                .name("standing").value(d.standing())
+                .name("enrollmentDate").value(d.enrollmentDate().toString())
+                .name("courses").beginObject();
+        for (Map.Entry<String, Grade> e : d.courses().entrySet())
+            json.name(e.getKey()).value(e.getValue().name());
+        json.endObject().endObject();
+    }
+
+    /** Sends 200 + chunked headers only when the first byte is written. */
+    private static final class LazyResponseStream extends OutputStream {
+        private final HttpExchange exchange;
+        private OutputStream body;
+
+        LazyResponseStream(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        private OutputStream body() throws IOException {
+            if (body == null) {
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, 0); // 0 → chunked
+                body = exchange.getResponseBody();
+            }
+            return body;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            body().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            body().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (body != null)
+                body.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            body().close();
+        }
+    }
+
+    // ── helpers ──
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            byte[] bytes = ("{\"error\":\"" + message.replace("\"", "'") + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } catch (IOException | IllegalStateException e) {
+            // headers already sent or client gone — nothing more we can do
+        }
+    }
+
+    private static int parseId(String s) throws HttpError {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, "invalid id: " + s);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        String raw = exchange.getRequestURI().getRawQuery();
+        return raw == null ? Map.of() : parseForm(raw);
+    }
+
+    private static Map<String, String> parseForm(String raw) {
+        Map<String, String> result = new HashMap<>();
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0)
+                result.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    // =====================================================================
+    // MAIN — serve the sample roster
+    // =====================================================================
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        StudentManagementSystem app = new StudentManagementSystem();
+        app.loadSampleData();
+        StudentHttpServer server = new StudentHttpServer(app.getRepository(), port);
+        server.start();
+        System.out.println("Serving on http://localhost:" + server.getPort() + "/students/1000 (Ctrl+C to stop)");
+    }
+}
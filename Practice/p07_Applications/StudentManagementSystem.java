@@ -91,6 +91,24 @@ public class StudentManagementSystem {
         }
     }
 
+    // =====================================================================
+    // CHANGE NOTIFICATIONS (Observer — repository listens to its students)
+    // =====================================================================
+
+    /** What part of a student was mutated. */
+    enum Change {
+        NAME, DEPARTMENT, COURSE
+    }
+
+    /**
+     * 📌 Called after a student is mutated. oldGPA is the GPA before the change
+     * (NaN if the student had no courses yet), so listeners can react to
+     * transitions without recomputing history.
+     */
+    interface StudentObserver {
+        void studentChanged(Student student, Change change, double oldGPA);
+    }
+
     // =====================================================================
     // STUDENT CLASS (implements Comparable for natural ordering by GPA)
     // =====================================================================
@@ -102,6 +120,9 @@ public class StudentManagementSystem {
         private Department department;
         private final Map<String, Grade> courses; // courseName → grade
         private final LocalDate enrollmentDate;
+        private double gradePointTotal; // running sum of course points → O(1) GPA
+        private transient int version; // bumped on every mutation
+        private transient List<StudentObserver> observers;
 
         Student(String name, Department department) {
             this.id = nextId++;
@@ -111,6 +132,16 @@ public class StudentManagementSystem {
             this.enrollmentDate = LocalDate.now();
         }
 
+        /** Restores a persisted student with its original id and enrollment date. */
+        Student(int id, String name, Department department, LocalDate enrollmentDate) {
+            this.id = id;
+            this.name = name;
+            this.department = department;
+            this.courses = new LinkedHashMap<>();
+            this.enrollmentDate = enrollmentDate;
+            nextId = Math.max(nextId, id + 1);
+        }
+
         // Getters
         int getId() {
             return id;
@@ -132,26 +163,75 @@ public class StudentManagementSystem {
             return enrollmentDate;
         }
 
+        int getVersion() {
+            return version;
+        }
+
         // Setters
         void setName(String name) {
             this.name = name;
+            changed(Change.NAME, gpaOrNaN());
         }
 
         void setDepartment(Department dept) {
             this.department = dept;
+            changed(Change.DEPARTMENT, gpaOrNaN());
         }
 
         void addCourse(String course, Grade grade) {
-            courses.put(course, grade);
+            double oldGPA = gpaOrNaN();
+            putCourse(course, grade);
+            changed(Change.COURSE, oldGPA);
+        }
+
+        /**
+         * Batch-load version of addCourse: applies the grade but does NOT
+         * notify observers — the caller (StudentRepository.applyGrades) patches
+         * its indexes once the whole batch is in.
+         */
+        void addCourseQuietly(String course, Grade grade) {
+            putCourse(course, grade);
+            version++;
+        }
+
+        private void putCourse(String course, Grade grade) {
+            Grade previous = courses.put(course, grade);
+            gradePointTotal += grade.getPoints() - (previous == null ? 0.0 : previous.getPoints());
+        }
+
+        // Observers
+        void addObserver(StudentObserver observer) {
+            if (observers == null)
+                observers = new ArrayList<>(2);
+            observers.add(observer);
+        }
+
+        void removeObserver(StudentObserver observer) {
+            if (observers != null)
+                observers.remove(observer);
+        }
+
+        private void changed(Change change, double oldGPA) {
+            version++;
+            notifyChanged(change, oldGPA);
+        }
+
+        void notifyChanged(Change change, double oldGPA) {
+            if (observers != null) {
+                for (StudentObserver observer : observers) {
+                    observer.studentChanged(this, change, oldGPA);
+                }
+            }
         }
 
         double getGPA() {
-            if (courses.isEmpty())
-                return 0.0;
-            return courses.values().stream()
-                    .mapToDouble(Grade::getPoints)
-                    .average()
-                    .orElse(0.0);
+            // Grade points are multiples of 0.25, so the running total stays exact
+            return courses.isEmpty() ? 0.0 : gradePointTotal / courses.size();
+        }
+
+        /** Like getGPA(), but NaN while there are no courses (no standing yet). */
+        double gpaOrNaN() {
+            return courses.isEmpty() ? Double.NaN : getGPA();
         }
 
         int getCreditCount() {
@@ -200,11 +280,32 @@ public class StudentManagementSystem {
 
         // For file persistence
         String toCSV() {
+            return toCSV(id, name, department, courses);
+        }
+
+        /** The one CSV row format, shared by saveToFile() and StudentExporter. */
+        static String toCSV(int id, String name, Department department, Map<String, Grade> courses) {
             String courseData = courses.entrySet().stream()
                     .map(e -> e.getKey() + "=" + e.getValue().name())
                     .collect(Collectors.joining(";"));
             return String.join(",", String.valueOf(id), name, department.name(), courseData);
         }
+
+        StudentRecord snapshot() {
+            return new StudentRecord(id, name, department,
+                    Collections.unmodifiableMap(new LinkedHashMap<>(courses)), enrollmentDate);
+        }
+    }
+
+    /**
+     * 📌 Immutable point-in-time copy of a Student — safe to hand to another
+     * thread while the live object keeps changing.
+     */
+    record StudentRecord(int id, String name, Department department,
+            Map<String, Grade> courses, LocalDate enrollmentDate) {
+        String toCSV() {
+            return Student.toCSV(id, name, department, courses);
+        }
     }
 
     // =====================================================================
@@ -214,6 +315,13 @@ public class StudentManagementSystem {
     static class StudentRepository {
         private final List<Student> students = new ArrayList<>();
         private final Map<Integer, Student> indexById = new HashMap<>();
+        private final StudentRenderCache renderCache = new StudentRenderCache(256);
+        private final StudentRankIndex rankIndex = new StudentRankIndex();
+        private final StandingAlerts standingAlerts = new StandingAlerts(64);
+        private final StudentSimilarityIndex similarityIndex = new StudentSimilarityIndex();
+        private final CoEnrollmentMatrix coEnrollment = new CoEnrollmentMatrix();
+        private final EnrollmentCohortIndex cohortIndex = new EnrollmentCohortIndex();
+        private final StudentObserver observer = this::onStudentChanged;
 
         void add(Student student) throws StudentException {
             if (indexById.containsKey(student.getId())) {
@@ -221,6 +329,97 @@ public class StudentManagementSystem {
             }
             students.add(student);
             indexById.put(student.getId(), student);
+            rankIndex.add(student);
+            similarityIndex.add(student);
+            coEnrollment.add(student);
+            cohortIndex.add(student);
+            student.addObserver(observer);
+        }
+
+        /** Keeps every derived structure in step with a mutated student. */
+        private void onStudentChanged(Student student, Change change, double oldGPA) {
+            renderCache.invalidate(student.getId());
+            if (change != Change.NAME) {
+                rankIndex.update(student);
+                cohortIndex.update(student);
+            }
+            if (change == Change.COURSE) {
+                standingAlerts.gpaChanged(student, oldGPA, student.gpaOrNaN());
+                similarityIndex.update(student);
+                coEnrollment.update(student);
+            }
+        }
+
+        /** onStudentChanged() for a batch of course changes: the batch-aware indexes get it in one call. */
+        private void onCoursesChanged(Map<Student, Double> oldGPAs) {
+            Set<Student> touched = oldGPAs.keySet();
+            for (Student s : touched) {
+                renderCache.invalidate(s.getId());
+                rankIndex.update(s);
+                coEnrollment.update(s);
+            }
+            cohortIndex.updateAll(touched);
+            similarityIndex.updateAll(touched);
+            oldGPAs.forEach((s, oldGPA) -> standingAlerts.gpaChanged(s, oldGPA, s.gpaOrNaN()));
+        }
+
+        // ── Similar students (MinHash + LSH over course sets) ──
+        List<StudentSimilarityIndex.Match> similarStudents(int id, int k) {
+            Student s = indexById.get(id);
+            return s == null ? List.of() : similarityIndex.similarTo(s, k);
+        }
+
+        void rebuildSimilarityIndex() {
+            similarityIndex.rebuild(students);
+        }
+
+        // ── Enrollment cohorts (TreeMap of epoch-day buckets) ──
+        List<Student> enrolledBetween(LocalDate from, LocalDate toExclusive) {
+            return cohortIndex.enrolledBetween(from, toExclusive);
+        }
+
+        List<Student> enrolledBefore(LocalDate date) {
+            return cohortIndex.enrolledBefore(date);
+        }
+
+        List<Student> enrolledIn(EnrollmentCohortIndex.Semester semester, int year) {
+            return cohortIndex.enrolledIn(semester, year);
+        }
+
+        Map<Department, EnrollmentCohortIndex.DepartmentTotals> cohortStats(LocalDate from, LocalDate toExclusive) {
+            return cohortIndex.cohortStats(from, toExclusive);
+        }
+
+        Map<Department, EnrollmentCohortIndex.DepartmentTotals> cohortStats(
+                EnrollmentCohortIndex.Semester semester, int year) {
+            return cohortIndex.cohortStats(semester, year);
+        }
+
+        // ── Exam scheduling: course co-enrollment ──
+        CoEnrollmentMatrix coEnrollment() {
+            return coEnrollment;
+        }
+
+        List<CoEnrollmentMatrix.Conflict> topExamConflicts(int n) {
+            return coEnrollment.topConflicts(n);
+        }
+
+        void rebuildCoEnrollment() {
+            coEnrollment.build(students);
+        }
+
+        // ── Dean's list / probation alerts ──
+        void addStandingListener(StandingAlerts.Listener listener) {
+            standingAlerts.addListener(listener);
+        }
+
+        void removeStandingListener(StandingAlerts.Listener listener) {
+            standingAlerts.removeListener(listener);
+        }
+
+        /** Delivers queued transitions now instead of waiting for a full batch. */
+        void flushStandingAlerts() {
+            standingAlerts.flush();
         }
 
         Optional<Student> findById(int id) {
@@ -243,11 +442,30 @@ public class StudentManagementSystem {
             Student s = indexById.remove(id);
             if (s != null) {
                 students.remove(s);
+                s.removeObserver(observer);
+                renderCache.invalidate(id);
+                rankIndex.remove(id);
+                similarityIndex.remove(s);
+                coEnrollment.remove(s);
+                cohortIndex.remove(s);
                 return true;
             }
             return false;
         }
 
+        // ── Rendered views (cached until the student changes) ──
+        String detailView(Student student) {
+            return renderCache.detail(student);
+        }
+
+        String rowView(Student student) {
+            return renderCache.row(student);
+        }
+
+        StudentRenderCache getRenderCache() {
+            return renderCache;
+        }
+
         List<Student> getAll() {
             return Collections.unmodifiableList(students);
         }
@@ -262,7 +480,36 @@ public class StudentManagementSystem {
         }
 
         Optional<Student> topStudent() {
-            return students.stream().max(Comparator.comparingDouble(Student::getGPA));
+            return rankIndex.studentAtRank(1);
+        }
+
+        // ── Rank & percentile (O(log n) via order-statistic trees) ──
+        OptionalInt rankOf(int id) {
+            return rankIndex.rankOf(id);
+        }
+
+        OptionalDouble percentileOf(int id) {
+            return rankIndex.percentileOf(id);
+        }
+
+        Optional<Student> studentAtRank(int k) {
+            return rankIndex.studentAtRank(k);
+        }
+
+        OptionalInt departmentRankOf(int id) {
+            return rankIndex.departmentRankOf(id);
+        }
+
+        OptionalDouble departmentPercentileOf(int id) {
+            return rankIndex.departmentPercentileOf(id);
+        }
+
+        Optional<Student> studentAtRank(Department dept, int k) {
+            return rankIndex.studentAtRank(dept, k);
+        }
+
+        int departmentSize(Department dept) {
+            return rankIndex.departmentSize(dept);
         }
 
         Map<Department, Long> countByDepartment() {
@@ -291,6 +538,78 @@ public class StudentManagementSystem {
                     .collect(Collectors.toList());
         }
 
+        // ── Batch grade ingestion ──
+
+        /** One (student, course, grade) tuple from an end-of-term grade load. */
+        record GradeUpdate(int studentId, String course, Grade grade) {
+        }
+
+        record BatchResult(int applied, int studentsTouched, int unknownStudents, long elapsedNanos) {
+            double updatesPerSecond() {
+                return elapsedNanos == 0 ? 0.0 : applied * 1e9 / elapsedNanos;
+            }
+        }
+
+        /**
+         * 💡 Applies a whole batch of grades in two phases:
+         *   1. one pass splits the batch into P lists by student id (input order
+         *      kept, so later grades win, exactly like addCourse); the lists are
+         *      then applied in parallel. Partitions touch disjoint students —
+         *      no locking, and each tuple is looked at once, not P times.
+         *   2. on the calling thread, hand the touched students to the derived
+         *      indexes as ONE batch: each index is patched once per student, not
+         *      once per grade, and the cohort and similarity indexes take the
+         *      whole batch in one call.
+         */
+        BatchResult applyGrades(Collection<GradeUpdate> updates) {
+            long start = System.nanoTime();
+            List<GradeUpdate> batch = updates instanceof RandomAccess
+                    ? (List<GradeUpdate>) updates
+                    : new ArrayList<>(updates);
+            int partitions = Runtime.getRuntime().availableProcessors();
+            List<List<GradeUpdate>> byPartition = new ArrayList<>(partitions);
+            List<Map<Student, Double>> oldGPAs = new ArrayList<>(partitions);
+            int[] unknown = new int[partitions];
+            for (int p = 0; p < partitions; p++) {
+                byPartition.add(new ArrayList<>(batch.size() / partitions + 1));
+                oldGPAs.add(new HashMap<>());
+            }
+            for (GradeUpdate u : batch)
+                byPartition.get(Math.floorMod(u.studentId(), partitions)).add(u);
+
+            IntStream.range(0, partitions).parallel().forEach(p -> {
+                Map<Student, Double> touched = oldGPAs.get(p);
+                for (GradeUpdate u : byPartition.get(p)) {
+                    Student s = indexById.get(u.studentId());
+                    if (s == null) {
+                        unknown[p]++;
+                        continue;
+                    }
+                    touched.putIfAbsent(s, s.gpaOrNaN());
+                    s.addCourseQuietly(u.course(), u.grade());
+                }
+            });
+
+            int unknownStudents = 0;
+            Map<Student, Double> touched = new HashMap<>();
+            for (int p = 0; p < partitions; p++) {
+                unknownStudents += unknown[p];
+                touched.putAll(oldGPAs.get(p)); // partitions hold disjoint students
+            }
+            onCoursesChanged(touched);
+            standingAlerts.flush();
+            int studentsTouched = touched.size();
+            return new BatchResult(batch.size() - unknownStudents, studentsTouched, unknownStudents,
+                    System.nanoTime() - start);
+        }
+
+        /** Consistent copy of the roster, e.g. for a background export. */
+        List<StudentRecord> snapshot() {
+            return students.stream()
+                    .map(Student::snapshot)
+                    .collect(Collectors.toList());
+        }
+
         // ── File Persistence ──
         void saveToFile(String filename) throws IOException {
             List<String> lines = students.stream()
@@ -305,14 +624,20 @@ public class StudentManagementSystem {
     // =====================================================================
 
     private final StudentRepository repo = new StudentRepository();
+    private final StudentExporter exporter = new StudentExporter();
     private final Scanner scanner = new Scanner(System.in);
 
+    StudentRepository getRepository() {
+        return repo;
+    }
+
     void run() {
         System.out.println("╔══════════════════════════════════════════════╗");
         System.out.println("║   STUDENT MANAGEMENT SYSTEM                  ║");
         System.out.println("╚══════════════════════════════════════════════╝");
 
         loadSampleData();
+        repo.addStandingListener(batch -> batch.forEach(t -> System.out.println("  🔔 " + t)));
 
         boolean running = true;
         while (running) {
@@ -331,10 +656,12 @@ public class StudentManagementSystem {
                 case "9" -> exportData();
                 case "0" -> {
                     running = false;
+                    finishExports();
                     System.out.println("\nGoodbye! 👋");
                 }
                 default -> System.out.println("  Invalid option. Try again.");
             }
+            repo.flushStandingAlerts(); // whatever this action changed, announce it before the next menu
         }
     }
 
@@ -388,13 +715,13 @@ public class StudentManagementSystem {
         System.out.println("  " + "─".repeat(75));
         repo.getAll().stream()
                 .sorted()
-                .forEach(s -> System.out.println("  " + s));
+                .forEach(s -> System.out.println("  " + repo.rowView(s)));
         System.out.println("  " + "─".repeat(75));
         System.out.println("  Total: " + repo.size() + " students");
     }
 
     void searchStudent() {
-        System.out.print("  Search by (name/id/dept): ");
+        System.out.print("  Search by (name/id/dept/cohort): ");
         String type = scanner.nextLine().trim().toLowerCase();
 
         switch (type) {
@@ -405,14 +732,14 @@ public class StudentManagementSystem {
                 if (results.isEmpty())
                     System.out.println("  No matches.");
                 else
-                    results.forEach(s -> System.out.println("  " + s));
+                    results.forEach(s -> System.out.println("  " + repo.rowView(s)));
             }
             case "id" -> {
                 System.out.print("  Enter ID: ");
                 try {
                     int id = Integer.parseInt(scanner.nextLine().trim());
                     repo.findById(id).ifPresentOrElse(
-                            s -> System.out.println("  " + s),
+                            s -> System.out.println("  " + repo.rowView(s)),
                             () -> System.out.println("  Not found."));
                 } catch (NumberFormatException e) {
                     System.out.println("  ❌ Invalid ID.");
@@ -426,11 +753,29 @@ public class StudentManagementSystem {
                     if (results.isEmpty())
                         System.out.println("  No students in " + dept);
                     else
-                        results.forEach(s -> System.out.println("  " + s));
+                        results.forEach(s -> System.out.println("  " + repo.rowView(s)));
                 } catch (IllegalArgumentException e) {
                     System.out.println("  ❌ Invalid department.");
                 }
             }
+            case "cohort" -> {
+                System.out.print("  Semester and year (e.g. SPRING 2025): ");
+                String[] parts = scanner.nextLine().trim().toUpperCase().split("\\s+");
+                try {
+                    EnrollmentCohortIndex.Semester semester = EnrollmentCohortIndex.Semester.valueOf(parts[0]);
+                    int year = Integer.parseInt(parts[1]);
+                    List<Student> results = repo.enrolledIn(semester, year);
+                    if (results.isEmpty()) {
+                        System.out.println("  Nobody enrolled in " + semester + " " + year);
+                    } else {
+                        results.forEach(s -> System.out.println("  " + repo.rowView(s)));
+                        repo.cohortStats(semester, year).forEach((dept, totals) -> System.out
+                                .printf("  %-5s: %s%n", dept.name(), totals));
+                    }
+                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    System.out.println("  ❌ Use SPRING, SUMMER or FALL followed by a year.");
+                }
+            }
             default -> System.out.println("  ❌ Invalid search type.");
         }
     }
@@ -473,7 +818,16 @@ public class StudentManagementSystem {
         try {
             int id = Integer.parseInt(scanner.nextLine().trim());
             repo.findById(id).ifPresentOrElse(
-                    s -> System.out.println(s.toDetailString()),
+                    s -> {
+                        System.out.println(repo.detailView(s));
+                        System.out.printf("  Class rank: %d of %d (%.0f%% percentile) | %s rank: %d of %d (%.0f%%)%n",
+                                repo.rankOf(id).getAsInt(), repo.size(), repo.percentileOf(id).getAsDouble(),
+                                s.getDepartment().name(), repo.departmentRankOf(id).getAsInt(),
+                                repo.departmentSize(s.getDepartment()), repo.departmentPercentileOf(id).getAsDouble());
+                        List<StudentSimilarityIndex.Match> similar = repo.similarStudents(id, 3);
+                        if (!similar.isEmpty())
+                            System.out.println("  Similar students: " + similar);
+                    },
                     () -> System.out.println("  ❌ Not found."));
         } catch (NumberFormatException e) {
             System.out.println("  ❌ Invalid ID.");
@@ -497,6 +851,11 @@ public class StudentManagementSystem {
             double avg = repo.avgGPAByDepartment().getOrDefault(dept, 0.0);
             System.out.printf("  │   %-5s: %d students, avg GPA: %.2f%n", dept.name(), count, avg);
         });
+        System.out.println("  │");
+        System.out.println("  │ Top exam clashes (students in both courses):");
+        repo.topExamConflicts(3).forEach(c -> System.out.println("  │   " + c));
+        System.out.println("  │");
+        System.out.println("  │ Render cache:   " + repo.getRenderCache().stats());
         System.out.println("  └─────────────────────────────┘");
     }
 
@@ -506,14 +865,14 @@ public class StudentManagementSystem {
         if (deans.isEmpty())
             System.out.println("  (empty)");
         else
-            deans.forEach(s -> System.out.println("  " + s));
+            deans.forEach(s -> System.out.println("  " + repo.rowView(s)));
 
         System.out.println("\n  ⚠️ Academic Probation (GPA < 2.0):");
         List<Student> probation = repo.probationList();
         if (probation.isEmpty())
             System.out.println("  (none — great!)");
         else
-            probation.forEach(s -> System.out.println("  " + s));
+            probation.forEach(s -> System.out.println("  " + repo.rowView(s)));
     }
 
     void removeStudent() {
@@ -530,12 +889,49 @@ public class StudentManagementSystem {
     }
 
     void exportData() {
-        String filename = "students_export.csv";
+        System.out.print("  Export (csv/bin/scol/jobs/cancel): ");
+        String type = scanner.nextLine().trim().toLowerCase();
+
+        switch (type) {
+            case "", "csv" -> startExport(StudentExporter.Format.CSV);
+            case "bin" -> startExport(StudentExporter.Format.BINARY);
+            case "scol" -> startExport(StudentExporter.Format.COLUMNAR);
+            case "jobs" -> {
+                if (exporter.getJobs().isEmpty())
+                    System.out.println("  No export jobs.");
+                else
+                    exporter.getJobs().forEach(j -> System.out.println("  " + j));
+            }
+            case "cancel" -> {
+                System.out.print("  Job #: ");
+                try {
+                    int jobId = Integer.parseInt(scanner.nextLine().trim());
+                    exporter.findJob(jobId).ifPresentOrElse(
+                            j -> System.out.println(j.cancel() ? "  ✅ Cancelled #" + jobId
+                                    : "  ❌ Job #" + jobId + " already finished."),
+                            () -> System.out.println("  ❌ No such job."));
+                } catch (NumberFormatException e) {
+                    System.out.println("  ❌ Invalid job number.");
+                }
+            }
+            default -> System.out.println("  ❌ Invalid export option.");
+        }
+    }
+
+    /** Snapshots the roster here, then writes the file in the background. */
+    void startExport(StudentExporter.Format format) {
+        Path target = Path.of("students_export." + format.getExtension());
+        StudentExporter.ExportJob job = exporter.submit(repo.snapshot(), format, target);
+        System.out.println("  ⏳ Started export #" + job.getJobId() + " → " + target
+                + " (check progress with 'jobs')");
+    }
+
+    /** Gives running exports a chance to finish before the JVM exits. */
+    void finishExports() {
         try {
-            repo.saveToFile(filename);
-            System.out.println("  ✅ Exported to " + filename);
-        } catch (IOException e) {
-            System.out.println("  ❌ Export failed: " + e.getMessage());
+            exporter.shutdown(30, java.util.concurrent.TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
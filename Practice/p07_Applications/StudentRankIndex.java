@@ -0,0 +1,310 @@
+/**
+ * StudentRankIndex.java — O(log n) Class Rank & Percentile with Order-Statistic Trees
+ * ====================================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: "What is this student's rank?" — the naive answer sorts the
+ *    whole roster (O(n log n)) every time. An ORDER-STATISTIC TREE is a
+ *    balanced BST where every node also stores the SIZE of its subtree.
+ *    With sizes you can answer, in O(log n):
+ *      - rank(x)   → how many keys come before x
+ *      - select(k) → which key sits at position k
+ *
+ *    We use a TREAP (tree + heap): a BST on the key, a heap on a random
+ *    priority. The random priorities keep it balanced with high probability,
+ *    and split/merge make insert and delete short and easy to follow.
+ *
+ *    Order: GPA descending, then id ascending (same as Student.compareTo,
+ *    with a tie-breaker so every key is unique).
+ *
+ * Topics covered:
+ *   1. Augmented binary search trees (subtree sizes)
+ *   2. Treaps: split / merge
+ *   3. Competition ranking ("1224") and percentiles
+ *   4. One index per Department with EnumMap
+ *
+ * 🔗 SEE ALSO: p07_Applications/StudentManagementSystem.java
+ * 🔗 SEE ALSO: p05_Collections/SetDemo.java (TreeSet — a BST without sizes)
+ */
+package p07_Applications;
+
+import java.util.*;
+
+import p07_Applications.StudentManagementSystem.Department;
+import p07_Applications.StudentManagementSystem.Grade;
+import p07_Applications.StudentManagementSystem.Student;
+
+public class StudentRankIndex {
+
+    // =====================================================================
+    // ORDER-STATISTIC TREAP
+    // =====================================================================
+
+    static final class RankTree {
+        private static final class Node {
+            final double gpa;
+            final int id;
+            final Student student;
+            final int priority;
+            int size = 1;
+            Node left, right;
+
+            Node(double gpa, Student student, int priority) {
+                this.gpa = gpa;
+                this.id = student.getId();
+                this.student = student;
+                this.priority = priority;
+            }
+        }
+
+        private final Random random = new Random();
+        private Node root;
+
+        int size() {
+            return size(root);
+        }
+
+        void insert(Student student, double gpa) {
+            Node node = new Node(gpa, student, random.nextInt());
+            Node[] parts = split(root, gpa, student.getId());
+            root = merge(merge(parts[0], node), parts[1]);
+        }
+
+        void delete(double gpa, int id) {
+            Node[] lessAndRest = split(root, gpa, id);
+            Node[] matchAndGreater = split(lessAndRest[1], gpa, id + 1L);
+            root = merge(lessAndRest[0], matchAndGreater[1]);
+        }
+
+        /** Number of keys ordered strictly before (gpa, id). */
+        int countBefore(double gpa, long id) {
+            int count = 0;
+            Node n = root;
+            while (n != null) {
+                if (compare(n.gpa, n.id, gpa, id) < 0) {
+                    count += size(n.left) + 1;
+                    n = n.right;
+                } else {
+                    n = n.left;
+                }
+            }
+            return count;
+        }
+
+        /** Number of students with a strictly higher GPA. */
+        int countHigher(double gpa) {
+            return countBefore(gpa, Long.MIN_VALUE);
+        }
+
+        /** The student at 0-based position k, or null if out of range. */
+        Student select(int k) {
+            Node n = root;
+            while (n != null) {
+                int leftSize = size(n.left);
+                if (k < leftSize) {
+                    n = n.left;
+                } else if (k == leftSize) {
+                    return n.student;
+                } else {
+                    k -= leftSize + 1;
+                    n = n.right;
+                }
+            }
+            return null;
+        }
+
+        // ── treap plumbing ──
+
+        private static int size(Node n) {
+            return n == null ? 0 : n.size;
+        }
+
+        private static Node update(Node n) {
+            n.size = 1 + size(n.left) + size(n.right);
+            return n;
+        }
+
+        /** GPA descending, then id ascending. */
+        private static int compare(double gpaA, long idA, double gpaB, long idB) {
+            int c = Double.compare(gpaB, gpaA);
+            return c != 0 ? c : Long.compare(idA, idB);
+        }
+
+        /** Splits into [keys before (gpa, id), keys at or after (gpa, id)]. */
+        private static Node[] split(Node n, double gpa, long id) {
+            if (n == null)
+                return new Node[] { null, null };
+            if (compare(n.gpa, n.id, gpa, id) < 0) {
+                Node[] parts = split(n.right, gpa, id);
+                n.right = parts[0];
+                parts[0] = update(n);
+                return parts;
+            } else {
+                Node[] parts = split(n.left, gpa, id);
+                n.left = parts[1];
+                parts[1] = update(n);
+                return parts;
+            }
+        }
+
+        /** Merges two treaps where every key in a precedes every key in b. */
+        private static Node merge(Node a, Node b) {
+            if (a == null)
+                return b;
+            if (b == null)
+                return a;
+            if (a.priority > b.priority) {
+                a.right = merge(a.right, b);
+                return update(a);
+            } else {
+                b.left = merge(a, b.left);
+                return update(b);
+            }
+        }
+    }
+
+    // =====================================================================
+    // INDEX — overall tree + one tree per department
+    // =====================================================================
+
+    /** The key a student was last filed under, so we can find it again. */
+    private static final class Filed {
+        final double gpa;
+        final Department department;
+
+        Filed(double gpa, Department department) {
+            this.gpa = gpa;
+            this.department = department;
+        }
+    }
+
+    private final RankTree overall = new RankTree();
+    private final Map<Department, RankTree> byDepartment = new EnumMap<>(Department.class);
+    private final Map<Integer, Filed> filed = new HashMap<>();
+
+    StudentRankIndex() {
+        for (Department d : Department.values())
+            byDepartment.put(d, new RankTree());
+    }
+
+    void add(Student student) {
+        double gpa = student.getGPA();
+        overall.insert(student, gpa);
+        byDepartment.get(student.getDepartment()).insert(student, gpa);
+        filed.put(student.getId(), new Filed(gpa, student.getDepartment()));
+    }
+
+    void remove(int id) {
+        Filed f = filed.remove(id);
+        if (f != null) {
+            overall.delete(f.gpa, id);
+            byDepartment.get(f.department).delete(f.gpa, id);
+        }
+    }
+
+    /** Re-files a student whose GPA or department changed. O(log n). */
+    void update(Student student) {
+        Filed f = filed.get(student.getId());
+        if (f != null && f.gpa == student.getGPA() && f.department == student.getDepartment())
+            return;
+        remove(student.getId());
+        add(student);
+    }
+
+    // ── Queries (ranks are 1-based; ties share a rank: 1, 2, 2, 4) ──
+
+    OptionalInt rankOf(int id) {
+        Filed f = filed.get(id);
+        return f == null ? OptionalInt.empty() : OptionalInt.of(overall.countHigher(f.gpa) + 1);
+    }
+
+    OptionalInt departmentRankOf(int id) {
+        Filed f = filed.get(id);
+        return f == null ? OptionalInt.empty()
+                : OptionalInt.of(byDepartment.get(f.department).countHigher(f.gpa) + 1);
+    }
+
+    /** Percentage of the class at or below this student's GPA. */
+    OptionalDouble percentileOf(int id) {
+        OptionalInt rank = rankOf(id);
+        return rank.isEmpty() ? OptionalDouble.empty() : OptionalDouble.of(percentile(rank.getAsInt(), overall.size()));
+    }
+
+    OptionalDouble departmentPercentileOf(int id) {
+        OptionalInt rank = departmentRankOf(id);
+        if (rank.isEmpty())
+            return OptionalDouble.empty();
+        int n = byDepartment.get(filed.get(id).department).size();
+        return OptionalDouble.of(percentile(rank.getAsInt(), n));
+    }
+
+    /**
+     * The student holding rank k by the same shared-rank rule as rankOf(), or
+     * empty if nobody does — with ranks 1, 2, 2, 4 there is no rank 3. Among
+     * tied students the lowest id is returned, so rankOf(studentAtRank(k)) == k.
+     */
+    Optional<Student> studentAtRank(int k) {
+        return atRank(overall, k);
+    }
+
+    Optional<Student> studentAtRank(Department department, int k) {
+        return atRank(byDepartment.get(department), k);
+    }
+
+    /** Position k - 1 holds rank k only if nobody before it shares its GPA. */
+    private Optional<Student> atRank(RankTree tree, int k) {
+        Student s = k < 1 ? null : tree.select(k - 1);
+        if (s == null || tree.countHigher(filed.get(s.getId()).gpa) + 1 != k)
+            return Optional.empty();
+        return Optional.of(s);
+    }
+
+    int size() {
+        return overall.size();
+    }
+
+    int departmentSize(Department department) {
+        return byDepartment.get(department).size();
+    }
+
+    private static double percentile(int rank, int n) {
+        return 100.0 * (n - rank + 1) / n;
+    }
+
+    // =====================================================================
+    // MAIN — ranks stay correct as grades change
+    // =====================================================================
+    public static void main(String[] args) throws StudentManagementSystem.StudentException {
+        StudentManagementSystem.StudentRepository repo = new StudentManagementSystem.StudentRepository();
+        Student ann = new Student("Ann", Department.CSE);
+        Student ben = new Student("Ben", Department.CSE);
+        Student cat = new Student("Cat", Department.EEE);
+        ann.addCourse("CSE215", Grade.B);
+        ben.addCourse("CSE215", Grade.A);
+        cat.addCourse("EEE201", Grade.A);
+        repo.add(ann);
+        repo.add(ben);
+        repo.add(cat);
+
+        printRanks(repo, ann, ben, cat);
+
+        System.out.println("\nAnn gets an A+ in CSE225...");
+        ann.addCourse("CSE225", Grade.A_PLUS);
+        printRanks(repo, ann, ben, cat);
+
+        System.out.println("\nRank 1 overall: " + repo.studentAtRank(1).map(Student::getName).orElse("-"));
+        System.out.println("Rank 2 overall: " + repo.studentAtRank(2).map(Student::getName).orElse("-"));
+        System.out.println("Rank 3 overall: " + repo.studentAtRank(3).map(Student::getName).orElse("- (shared rank)"));
+        System.out.println("Rank 1 in CSE:  " + repo.studentAtRank(Department.CSE, 1).map(Student::getName).orElse("-"));
+    }
+
+    private static void printRanks(StudentManagementSystem.StudentRepository repo, Student... students) {
+        for (Student s : students) {
+            System.out.printf("  %-4s GPA %.2f → rank %d (%.0f%%), %s rank %d (%.0f%%)%n",
+                    s.getName(), s.getGPA(),
+                    repo.rankOf(s.getId()).getAsInt(), repo.percentileOf(s.getId()).getAsDouble(),
+                    s.getDepartment().name(),
+                    repo.departmentRankOf(s.getId()).getAsInt(), repo.departmentPercentileOf(s.getId()).getAsDouble());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * StudentRenderCache.java — Bounded Cache of Rendered Student Views
+ * ==================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: toDetailString() runs a dozen String.format calls and
+ *    recomputes the GPA every time. Popular records are viewed again and
+ *    again, yet they rarely change — so we render once and reuse the text
+ *    until the student is mutated.
+ *
+ *    Entries are keyed by student id and remember the student's version.
+ *    The repository invalidates an id whenever addCourse / setName /
+ *    setDepartment touch that student; the version check is a safety net.
+ *
+ * Topics covered:
+ *   1. LinkedHashMap in access order as an LRU cache
+ *   2. removeEldestEntry() to bound the size
+ *   3. Invalidation driven by change notifications
+ *   4. Hit / miss / eviction counters
+ *
+ * 🔗 SEE ALSO: p07_Applications/StudentManagementSystem.java
+ * 🔗 SEE ALSO: p05_Collections/HashMapDemo.java
+ */
+package p07_Applications;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import p07_Applications.StudentManagementSystem.Department;
+import p07_Applications.StudentManagementSystem.Grade;
+import p07_Applications.StudentManagementSystem.Student;
+
+public class StudentRenderCache {
+
+    /** Rendered text for one student at one version; fields fill in lazily. */
+    private static final class Entry {
+        final int version;
+        String detail;
+        String row;
+
+        Entry(int version) {
+            this.version = version;
+        }
+    }
+
+    private final int capacity;
+    private final Map<Integer, Entry> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    StudentRenderCache(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        // accessOrder = true → iteration order is least-recently-used first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > StudentRenderCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** The boxed detail card shown by "View Student Details". */
+    synchronized String detail(Student student) {
+        Entry entry = lookup(student);
+        if (entry.detail == null) {
+            misses++;
+            entry.detail = student.toDetailString();
+        } else {
+            hits++;
+        }
+        return entry.detail;
+    }
+
+    /** The one-line summary used in listings and search results. */
+    synchronized String row(Student student) {
+        Entry entry = lookup(student);
+        if (entry.row == null) {
+            misses++;
+            entry.row = student.toString();
+        } else {
+            hits++;
+        }
+        return entry.row;
+    }
+
+    /** Drops whatever was rendered for this id. */
+    synchronized void invalidate(int id) {
+        if (entries.remove(id) != null)
+            invalidations++;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    private Entry lookup(Student student) {
+        Entry entry = entries.get(student.getId());
+        if (entry == null || entry.version != student.getVersion()) {
+            entry = new Entry(student.getVersion());
+            entries.put(student.getId(), entry);
+        }
+        return entry;
+    }
+
+    // ── Metrics ──
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    synchronized long evictions() {
+        return evictions;
+    }
+
+    synchronized long invalidations() {
+        return invalidations;
+    }
+
+    synchronized double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    synchronized String stats() {
+        return String.format("%d/%d entries, hits=%d, misses=%d, hit rate=%.1f%%, evictions=%d, invalidations=%d",
+                entries.size(), capacity, hits, misses, hitRate() * 100, evictions, invalidations);
+    }
+
+    // =====================================================================
+    // MAIN — quick demo of hits, invalidation and eviction
+    // =====================================================================
+    public static void main(String[] args) throws StudentManagementSystem.StudentException {
+        StudentManagementSystem.StudentRepository repo = new StudentManagementSystem.StudentRepository();
+        Student alice = new Student("Alice Johnson", Department.CSE);
+        alice.addCourse("CSE215 - Programming II", Grade.A);
+        repo.add(alice);
+
+        repo.detailView(alice); // miss — rendered
+        repo.detailView(alice); // hit
+        repo.detailView(alice); // hit
+        System.out.println("After 3 views:       " + repo.getRenderCache().stats());
+
+        alice.addCourse("CSE225 - Data Structures", Grade.B_PLUS); // invalidates
+        System.out.println(repo.detailView(alice));
+        System.out.println("After addCourse:     " + repo.getRenderCache().stats());
+
+        // Eviction: a tiny cache holding 2 students
+        StudentRenderCache tiny = new StudentRenderCache(2);
+        for (int i = 0; i < 5; i++) {
+            tiny.row(new Student("Student " + i, Department.MATH));
+        }
+        System.out.println("Tiny cache (cap 2):  " + tiny.stats());
+    }
+}
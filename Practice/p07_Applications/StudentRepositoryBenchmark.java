@@ -0,0 +1,179 @@
+/**
+ * StudentRepositoryBenchmark.java — Micro-Benchmarks for the Student Repository
+ * ==============================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: "Faster" means nothing without numbers. Each scenario below
+ *    builds a synthetic roster, warms the JIT up with a few untimed rounds,
+ *    then reports the best of several timed rounds.
+ *
+ * ⚠️ GOTCHA: Hand-rolled timing loops are rough. For publishable numbers use
+ *    JMH — these are for comparing approaches side by side on one machine.
+ *
+ * Run all scenarios:      java p07_Applications.StudentRepositoryBenchmark
+ * Run one scenario:       java p07_Applications.StudentRepositoryBenchmark batch
+ *
+ * 🔗 SEE ALSO: p07_Applications/StudentManagementSystem.java
+ */
+package p07_Applications;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import p07_Applications.StudentManagementSystem.Department;
+import p07_Applications.StudentManagementSystem.Grade;
+import p07_Applications.StudentManagementSystem.Student;
+import p07_Applications.StudentManagementSystem.StudentException;
+import p07_Applications.StudentManagementSystem.StudentRepository;
+import p07_Applications.StudentManagementSystem.StudentRepository.GradeUpdate;
+
+public class StudentRepositoryBenchmark {
+
+    static final int WARMUP_ROUNDS = 3;
+    static final int TIMED_ROUNDS = 5;
+
+    @FunctionalInterface
+    interface Round {
+        void run() throws Exception;
+    }
+
+    /** Runs setup + body repeatedly; returns the best body time in nanoseconds. */
+    static long bestOf(Round setup, Round body) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ROUNDS + TIMED_ROUNDS; i++) {
+            setup.run();
+            long start = System.nanoTime();
+            body.run();
+            long elapsed = System.nanoTime() - start;
+            if (i >= WARMUP_ROUNDS)
+                best = Math.min(best, elapsed);
+        }
+        return best;
+    }
+
+    static void report(String label, long ops, long nanos) {
+        System.out.printf("  %-40s %10.1f ms  %,14.0f ops/s%n", label, nanos / 1e6, ops * 1e9 / nanos);
+    }
+
+    // =====================================================================
+    // Synthetic data
+    // =====================================================================
+
+    static final String[] COURSES = new String[120];
+    static {
+        for (int i = 0; i < COURSES.length; i++)
+            COURSES[i] = "C" + (100 + i);
+    }
+
+    static StudentRepository roster(int size, int coursesEach, long seed) throws StudentException {
+        StudentRepository repo = new StudentRepository();
+        Department[] depts = Department.values();
+        Grade[] grades = Grade.values();
+        Random random = new Random(seed);
+        for (int i = 0; i < size; i++) {
+            Student s = new Student("Student " + i, depts[random.nextInt(depts.length)]);
+            for (int c = 0; c < coursesEach; c++)
+                s.addCourse(COURSES[random.nextInt(COURSES.length)], grades[random.nextInt(grades.length)]);
+            repo.add(s);
+        }
+        return repo;
+    }
+
+    static List<GradeUpdate> gradeLoad(StudentRepository repo, int count, long seed) {
+        List<Student> all = repo.getAll();
+        Grade[] grades = Grade.values();
+        Random random = new Random(seed);
+        List<GradeUpdate> updates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Student s = all.get(random.nextInt(all.size()));
+            updates.add(new GradeUpdate(s.getId(), COURSES[random.nextInt(COURSES.length)],
+                    grades[random.nextInt(grades.length)]));
+        }
+        return updates;
+    }
+
+    // =====================================================================
+    // Scenarios
+    // =====================================================================
+
+    /** Batch grade ingestion: one addCourse per tuple vs applyGrades. */
+    static void batch() throws Exception {
+        System.out.println("\n=== BATCH GRADE INGESTION (10k students, 50k grades) ===");
+        System.out.println("  (" + Runtime.getRuntime().availableProcessors() + " cores)");
+        // Small enough to finish quickly on one core: each addCourse patches every derived index
+        final int students = 10_000;
+        final int grades = 50_000;
+        AtomicReference<StudentRepository> repo = new AtomicReference<>();
+        AtomicReference<List<GradeUpdate>> load = new AtomicReference<>();
+        Round setup = () -> {
+            repo.set(roster(students, 0, 1));
+            load.set(gradeLoad(repo.get(), grades, 2));
+        };
+
+        long oneByOne = bestOf(setup, () -> {
+            for (GradeUpdate u : load.get())
+                repo.get().findById(u.studentId()).ifPresent(s -> s.addCourse(u.course(), u.grade()));
+        });
+        report("addCourse per tuple", grades, oneByOne);
+
+        long batched = bestOf(setup, () -> repo.get().applyGrades(load.get()));
+        report("applyGrades (partitioned)", grades, batched);
+    }
+
+    /** Class rank: sort the roster each time vs the order-statistic index. */
+    static void rank() throws Exception {
+        System.out.println("\n=== RANK QUERIES (100k students) ===");
+        final int lookups = 100_000;
+        final int sortedLookups = 10; // sorting per lookup is far too slow to do 100k times
+        StudentRepository repo = roster(100_000, 8, 3);
+        List<Student> all = repo.getAll();
+        Random random = new Random(4);
+        int[] ids = new int[lookups];
+        for (int i = 0; i < lookups; i++)
+            ids[i] = all.get(random.nextInt(all.size())).getId();
+        long[] sink = new long[1];
+        Round none = () -> {
+        };
+
+        long sorted = bestOf(none, () -> {
+            for (int i = 0; i < sortedLookups; i++) {
+                Student target = repo.findById(ids[i]).orElseThrow();
+                List<Student> order = new ArrayList<>(all);
+                Collections.sort(order);
+                int higher = 0;
+                while (higher < order.size() && order.get(higher).getGPA() > target.getGPA())
+                    higher++;
+                sink[0] += higher + 1;
+            }
+        });
+        report("sort roster per lookup", sortedLookups, sorted);
+
+        long indexed = bestOf(none, () -> {
+            for (int id : ids)
+                sink[0] += repo.rankOf(id).getAsInt();
+        });
+        report("rankOf (order-statistic treap)", lookups, indexed);
+    }
+
+    // =====================================================================
+    // MAIN
+    // =====================================================================
+    public static void main(String[] args) throws Exception {
+        Map<String, Round> scenarios = new LinkedHashMap<>();
+        scenarios.put("batch", StudentRepositoryBenchmark::batch);
+        scenarios.put("rank", StudentRepositoryBenchmark::rank);
+
+        if (args.length == 0) {
+            for (Round r : scenarios.values())
+                r.run();
+        } else {
+            for (String name : args) {
+                Round r = scenarios.get(name);
+                if (r == null)
+                    System.out.println("Unknown scenario '" + name + "'. Available: " + scenarios.keySet());
+                else
+                    r.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/**
+ * StudentSimilarityIndex.java — Similar Students via MinHash + LSH
+ * =================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: Two students are similar if they took many of the same
+ *    courses. The JACCARD similarity of their course sets is
+ *
+ *        |A ∩ B| / |A ∪ B|      (1.0 = identical, 0.0 = nothing shared)
+ *
+ *    Comparing one student with everyone is O(n); everyone with everyone
+ *    is O(n²). Two tricks make it sub-linear:
+ *
+ *    1. MINHASH: hash every course with k different hash functions and keep
+ *       the MINIMUM per function. The chance two students share a minimum
+ *       equals their Jaccard similarity — so k small numbers summarise a set.
+ *
+ *    2. LSH (locality-sensitive hashing): cut the k minimums into BANDS of
+ *       r rows. Students whose band values match land in the same bucket.
+ *       Similar students collide in at least one band with high probability;
+ *       dissimilar ones rarely do. We only score students we collide with.
+ *
+ *    With 16 bands × 4 rows, pairs at Jaccard 0.5 are found ~65% of the
+ *    time, at 0.7 ~99%, while pairs at 0.2 collide only ~2.5% of the time.
+ *
+ * Topics covered:
+ *   1. Probabilistic data structures (MinHash signatures)
+ *   2. Banding and bucketing (LSH)
+ *   3. Incremental maintenance vs parallel full rebuild
+ *
+ * 🔗 SEE ALSO: p05_Collections/SetDemo.java (set intersection / union)
+ * 🔗 SEE ALSO: p07_Applications/StudentManagementSystem.java
+ */
+package p07_Applications;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import p07_Applications.StudentManagementSystem.Department;
+import p07_Applications.StudentManagementSystem.Grade;
+import p07_Applications.StudentManagementSystem.Student;
+
+public class StudentSimilarityIndex {
+
+    static final int BANDS = 16;
+    static final int ROWS = 4;
+    static final int HASHES = BANDS * ROWS;
+
+    /**
+     * The signature of a student with no courses. It is never bucketed: all such
+     * students would share one bucket per band, and none of them is similar to anyone.
+     */
+    private static final long[] NO_COURSES = new long[0];
+
+    record Match(Student student, double jaccard) {
+        @Override
+        public String toString() {
+            return String.format("%s (%.0f%% overlap)", student.getName(), jaccard * 100);
+        }
+    }
+
+    /** Per-course hash values are reused by every student who took it. */
+    private final Map<String, long[]> courseHashes = new ConcurrentHashMap<>();
+    private final Map<Student, long[]> signatures = new HashMap<>();
+    private final List<Map<Long, Set<Student>>> bands = new ArrayList<>(BANDS);
+
+    StudentSimilarityIndex() {
+        for (int b = 0; b < BANDS; b++)
+            bands.add(new HashMap<>());
+    }
+
+    // ── Maintenance ──
+
+    void add(Student student) {
+        long[] signature = signatureOf(student);
+        signatures.put(student, signature);
+        if (signature != NO_COURSES)
+            for (int b = 0; b < BANDS; b++)
+                bucket(b, bandKey(signature, b)).add(student);
+    }
+
+    void remove(Student student) {
+        long[] signature = signatures.remove(student);
+        if (signature == null || signature == NO_COURSES)
+            return;
+        for (int b = 0; b < BANDS; b++)
+            unbucket(b, bandKey(signature, b), student);
+    }
+
+    /** Called when a student's courses change; only moved bands are touched. */
+    void update(Student student) {
+        rebucket(student, signatureOf(student));
+    }
+
+    /** update() for a batch: signatures are computed in parallel, then re-bucketed in one pass. */
+    void updateAll(Collection<Student> students) {
+        Map<Student, long[]> fresh = new ConcurrentHashMap<>();
+        students.parallelStream().forEach(s -> fresh.put(s, signatureOf(s)));
+        fresh.forEach(this::rebucket);
+    }
+
+    /** Moves the student from the buckets of its old signature (if any) to those of the new one. */
+    private void rebucket(Student student, long[] signature) {
+        long[] old = signatures.get(student);
+        boolean wasBucketed = old != null && old != NO_COURSES;
+        boolean isBucketed = signature != NO_COURSES;
+        for (int b = 0; b < BANDS; b++) {
+            long oldKey = wasBucketed ? bandKey(old, b) : 0;
+            long newKey = isBucketed ? bandKey(signature, b) : 0;
+            if (wasBucketed && isBucketed && oldKey == newKey)
+                continue;
+            if (wasBucketed)
+                unbucket(b, oldKey, student);
+            if (isBucketed)
+                bucket(b, newKey).add(student);
+        }
+        signatures.put(student, signature);
+    }
+
+    /** Recomputes every signature in parallel, then re-buckets. */
+    void rebuild(Collection<Student> students) {
+        Map<Student, long[]> fresh = new ConcurrentHashMap<>();
+        students.parallelStream().forEach(s -> fresh.put(s, signatureOf(s)));
+
+        signatures.clear();
+        signatures.putAll(fresh);
+        // One band per task: each task owns its own bucket map, so no locking
+        List<Map<Long, Set<Student>>> rebuilt = IntStream.range(0, BANDS).parallel().mapToObj(b -> {
+            Map<Long, Set<Student>> buckets = new HashMap<>();
+            fresh.forEach((s, sig) -> {
+                if (sig != NO_COURSES)
+                    buckets.computeIfAbsent(bandKey(sig, b), k -> new HashSet<>()).add(s);
+            });
+            return buckets;
+        }).collect(Collectors.toList());
+        for (int b = 0; b < BANDS; b++)
+            bands.set(b, rebuilt.get(b));
+    }
+
+    // ── Queries ──
+
+    /** Top-k students by exact Jaccard, scoring only LSH candidates. */
+    List<Match> similarTo(Student student, int k) {
+        long[] signature = signatures.get(student);
+        if (signature == null || signature == NO_COURSES)
+            return List.of();
+        Set<Student> candidates = new HashSet<>();
+        for (int b = 0; b < BANDS; b++) {
+            Set<Student> bucket = bands.get(b).get(bandKey(signature, b));
+            if (bucket != null)
+                candidates.addAll(bucket);
+        }
+        candidates.remove(student);
+
+        PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingDouble(Match::jaccard));
+        Set<String> mine = student.getCourses().keySet();
+        for (Student other : candidates) {
+            double j = jaccard(mine, other.getCourses().keySet());
+            if (j == 0.0)
+                continue;
+            best.add(new Match(other, j));
+            if (best.size() > k)
+                best.poll();
+        }
+        List<Match> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Match::jaccard).reversed());
+        return result;
+    }
+
+    static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty())
+            return 0.0;
+        Set<String> smaller = a.size() <= b.size() ? a : b;
+        Set<String> larger = smaller == a ? b : a;
+        int shared = 0;
+        for (String course : smaller)
+            if (larger.contains(course))
+                shared++;
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+
+    // ── MinHash plumbing ──
+
+    private long[] signatureOf(Student student) {
+        if (student.getCourses().isEmpty())
+            return NO_COURSES;
+        long[] signature = new long[HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String course : student.getCourses().keySet()) {
+            long[] h = courseHashes.computeIfAbsent(course, StudentSimilarityIndex::hashesOf);
+            for (int i = 0; i < HASHES; i++)
+                if (h[i] < signature[i])
+                    signature[i] = h[i];
+        }
+        return signature;
+    }
+
+    /** k independent-looking hashes of one course, via SplitMix64 with k seeds. */
+    private static long[] hashesOf(String course) {
+        long base = course.hashCode() * 0x9E3779B97F4A7C15L;
+        long[] h = new long[HASHES];
+        for (int i = 0; i < HASHES; i++)
+            h[i] = mix(base + (i + 1) * 0xBF58476D1CE4E5B9L);
+        return h;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long bandKey(long[] signature, int band) {
+        long key = band;
+        for (int r = band * ROWS; r < (band + 1) * ROWS; r++)
+            key = mix(key ^ signature[r]);
+        return key;
+    }
+
+    private Set<Student> bucket(int band, long key) {
+        return bands.get(band).computeIfAbsent(key, k -> new HashSet<>());
+    }
+
+    private void unbucket(int band, long key, Student student) {
+        Set<Student> bucket = bands.get(band).get(key);
+        if (bucket != null) {
+            bucket.remove(student);
+            if (bucket.isEmpty())
+                bands.get(band).remove(key);
+        }
+    }
+
+    // =====================================================================
+    // MAIN — LSH vs brute force on 50k students
+    // =====================================================================
+    public static void main(String[] args) throws StudentManagementSystem.StudentException {
+        StudentManagementSystem.StudentRepository repo = new StudentManagementSystem.StudentRepository();
+        Random random = new Random(5);
+        Grade[] grades = Grade.values();
+        Department[] depts = Department.values();
+        // Students follow one of 200 "programmes" of 8 courses, with a few electives swapped in
+        for (int i = 0; i < 50_000; i++) {
+            Student s = new Student("Student " + i, depts[i % depts.length]);
+            int programme = random.nextInt(200);
+            for (int c = 0; c < 8; c++) {
+                int course = random.nextInt(10) < 8 ? programme * 8 + c : random.nextInt(2_000);
+                s.addCourse("C" + course, grades[random.nextInt(grades.length)]);
+            }
+            repo.add(s);
+        }
+        Student target = repo.getAll().get(0);
+
+        long start = System.nanoTime();
+        List<Match> lsh = repo.similarStudents(target.getId(), 5);
+        long lshNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<Match> exact = new ArrayList<>();
+        for (Student other : repo.getAll())
+            if (other != target)
+                exact.add(new Match(other, jaccard(target.getCourses().keySet(), other.getCourses().keySet())));
+        exact.sort(Comparator.comparingDouble(Match::jaccard).reversed());
+        long bruteNanos = System.nanoTime() - start;
+
+        System.out.printf("LSH top-5   (%.2f ms): %s%n", lshNanos / 1e6, lsh);
+        System.out.printf("Exact top-5 (%.2f ms): %s%n", bruteNanos / 1e6, exact.subList(0, 5));
+
+        start = System.nanoTime();
+        repo.rebuildSimilarityIndex();
+        System.out.printf("Parallel rebuild of 50k signatures: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+}
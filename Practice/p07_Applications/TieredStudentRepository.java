@@ -0,0 +1,577 @@
+/**
+ * TieredStudentRepository.java — Hot/Cold Student Storage with On-Disk Spill
+ * ===========================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: Think of a library. Popular books sit on the front shelves
+ *    (HOT tier, in memory); everything else lives in the basement stacks
+ *    (COLD tier, on disk). A catalogue (the B+TREE index) tells the librarian
+ *    exactly which shelf in the basement holds a given book.
+ *
+ *    - The hot tier is bounded. When it is full, a rarely-used student is
+ *      evicted: if it changed since it was last written, it is SPILLED to disk.
+ *    - findById() checks the hot tier first, then follows the B+tree to the
+ *      student's record on disk and loads it back — the caller never notices.
+ *
+ *    ⚠️ GOTCHA: the repository owns its Student objects — one may be evicted
+ *       and decoded again at any time, so a reference handed out earlier
+ *       would silently go stale. add() and findById() therefore work on
+ *       COPIES; to change a student, edit the copy and call update().
+ *
+ *    Eviction is FREQUENCY-AWARE ("sampled LFU"): every access bumps a
+ *    counter, we pick a few random hot entries and evict the least-used one.
+ *    Counters are halved periodically so yesterday's favourites can cool off.
+ *
+ *    Use this for archived rosters from past terms. The live
+ *    StudentRepository keeps every student in memory because its rank and
+ *    render indexes hold direct references.
+ *
+ * Topics covered:
+ *   1. B+trees: sorted keys, fan-out, leaf splits, internal splits
+ *   2. Page-structured files with FileChannel positional I/O
+ *   3. Binary record encoding with DataOutputStream
+ *   4. Cache eviction policies and hit/miss ratios
+ *
+ * 🔗 SEE ALSO: p07_Applications/StudentManagementSystem.java
+ * 🔗 SEE ALSO: p06_FileIO/FileReadWrite.java
+ */
+package p07_Applications;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+import p07_Applications.StudentManagementSystem.Department;
+import p07_Applications.StudentManagementSystem.Grade;
+import p07_Applications.StudentManagementSystem.Student;
+import p07_Applications.StudentManagementSystem.StudentException;
+
+public class TieredStudentRepository implements Closeable {
+
+    // =====================================================================
+    // B+TREE — int id → long disk address
+    // =====================================================================
+
+    /**
+     * 📌 Internal nodes only route; all values live in the leaves, which are
+     * chained left to right so a range scan is a simple walk.
+     */
+    static final class BPlusTree {
+        static final int ORDER = 64; // max keys per node
+
+        private static class Node {
+            int count;
+            final int[] keys = new int[ORDER];
+        }
+
+        private static final class Leaf extends Node {
+            final long[] values = new long[ORDER];
+            Leaf next;
+        }
+
+        private static final class Internal extends Node {
+            final Node[] children = new Node[ORDER + 1];
+        }
+
+        private Node root = new Leaf();
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        /** Returns the address for id, or -1 if absent. */
+        long get(int id) {
+            Node n = root;
+            while (n instanceof Internal in)
+                n = in.children[childIndex(in, id)];
+            Leaf leaf = (Leaf) n;
+            int i = Arrays.binarySearch(leaf.keys, 0, leaf.count, id);
+            return i >= 0 ? leaf.values[i] : -1;
+        }
+
+        /** Inserts or overwrites. */
+        void put(int id, long address) {
+            Node sibling = insert(root, id, address);
+            if (sibling != null) {
+                Internal newRoot = new Internal();
+                newRoot.keys[0] = firstKey(sibling);
+                newRoot.children[0] = root;
+                newRoot.children[1] = sibling;
+                newRoot.count = 1;
+                root = newRoot;
+            }
+        }
+
+        /** Removes id from its leaf (leaves may underflow; fine for an archive). */
+        boolean remove(int id) {
+            Node n = root;
+            while (n instanceof Internal in)
+                n = in.children[childIndex(in, id)];
+            Leaf leaf = (Leaf) n;
+            int i = Arrays.binarySearch(leaf.keys, 0, leaf.count, id);
+            if (i < 0)
+                return false;
+            System.arraycopy(leaf.keys, i + 1, leaf.keys, i, leaf.count - i - 1);
+            System.arraycopy(leaf.values, i + 1, leaf.values, i, leaf.count - i - 1);
+            leaf.count--;
+            size--;
+            return true;
+        }
+
+        /** Visits every (id, address) pair in id order. */
+        void forEach(IdAddressConsumer action) {
+            Node n = root;
+            while (n instanceof Internal in)
+                n = in.children[0];
+            for (Leaf leaf = (Leaf) n; leaf != null; leaf = leaf.next)
+                for (int i = 0; i < leaf.count; i++)
+                    action.accept(leaf.keys[i], leaf.values[i]);
+        }
+
+        @FunctionalInterface
+        interface IdAddressConsumer {
+            void accept(int id, long address);
+        }
+
+        private static int childIndex(Internal in, int id) {
+            int i = Arrays.binarySearch(in.keys, 0, in.count, id);
+            return i >= 0 ? i + 1 : -i - 1;
+        }
+
+        private static int firstKey(Node n) {
+            while (n instanceof Internal in)
+                n = in.children[0];
+            return n.keys[0];
+        }
+
+        /** Inserts below n; returns a new right sibling if n had to split. */
+        private Node insert(Node n, int id, long address) {
+            if (n instanceof Leaf leaf) {
+                int i = Arrays.binarySearch(leaf.keys, 0, leaf.count, id);
+                if (i >= 0) {
+                    leaf.values[i] = address;
+                    return null;
+                }
+                size++;
+                return insertIntoLeaf(leaf, -i - 1, id, address);
+            }
+            Internal in = (Internal) n;
+            int c = childIndex(in, id);
+            Node sibling = insert(in.children[c], id, address);
+            return sibling == null ? null : insertIntoInternal(in, c, firstKey(sibling), sibling);
+        }
+
+        private static Node insertIntoLeaf(Leaf leaf, int pos, int id, long address) {
+            if (leaf.count < ORDER) {
+                System.arraycopy(leaf.keys, pos, leaf.keys, pos + 1, leaf.count - pos);
+                System.arraycopy(leaf.values, pos, leaf.values, pos + 1, leaf.count - pos);
+                leaf.keys[pos] = id;
+                leaf.values[pos] = address;
+                leaf.count++;
+                return null;
+            }
+            // Full: merge into temp arrays, then split in half
+            int[] keys = new int[ORDER + 1];
+            long[] values = new long[ORDER + 1];
+            System.arraycopy(leaf.keys, 0, keys, 0, pos);
+            System.arraycopy(leaf.values, 0, values, 0, pos);
+            keys[pos] = id;
+            values[pos] = address;
+            System.arraycopy(leaf.keys, pos, keys, pos + 1, ORDER - pos);
+            System.arraycopy(leaf.values, pos, values, pos + 1, ORDER - pos);
+
+            Leaf right = new Leaf();
+            int half = (ORDER + 1) / 2;
+            leaf.count = half;
+            right.count = ORDER + 1 - half;
+            System.arraycopy(keys, 0, leaf.keys, 0, half);
+            System.arraycopy(values, 0, leaf.values, 0, half);
+            System.arraycopy(keys, half, right.keys, 0, right.count);
+            System.arraycopy(values, half, right.values, 0, right.count);
+            right.next = leaf.next;
+            leaf.next = right;
+            return right;
+        }
+
+        /** Adds separator key + right child after child index c. */
+        private static Node insertIntoInternal(Internal in, int c, int key, Node child) {
+            if (in.count < ORDER) {
+                System.arraycopy(in.keys, c, in.keys, c + 1, in.count - c);
+                System.arraycopy(in.children, c + 1, in.children, c + 2, in.count - c);
+                in.keys[c] = key;
+                in.children[c + 1] = child;
+                in.count++;
+                return null;
+            }
+            int[] keys = new int[ORDER + 1];
+            Node[] children = new Node[ORDER + 2];
+            System.arraycopy(in.keys, 0, keys, 0, c);
+            keys[c] = key;
+            System.arraycopy(in.keys, c, keys, c + 1, ORDER - c);
+            System.arraycopy(in.children, 0, children, 0, c + 1);
+            children[c + 1] = child;
+            System.arraycopy(in.children, c + 1, children, c + 2, ORDER - c);
+
+            // The middle key moves UP; it is not kept in either half
+            int mid = (ORDER + 1) / 2;
+            Internal right = new Internal();
+            in.count = mid;
+            right.count = ORDER - mid;
+            System.arraycopy(keys, 0, in.keys, 0, mid);
+            System.arraycopy(children, 0, in.children, 0, mid + 1);
+            Arrays.fill(in.children, mid + 1, ORDER + 1, null);
+            System.arraycopy(keys, mid + 1, right.keys, 0, right.count);
+            System.arraycopy(children, mid + 1, right.children, 0, right.count + 1);
+            return right;
+        }
+    }
+
+    // =====================================================================
+    // PAGE FILE — append-only student records in fixed-size pages
+    // =====================================================================
+
+    /**
+     * 📌 Layout: page 0 is a header (magic + page size). Records are
+     * length-prefixed and never straddle a page boundary unless they are
+     * larger than a page, so a typical load is a single page read.
+     */
+    static final class StudentPageFile implements Closeable {
+        static final int PAGE_SIZE = 4096;
+        static final int MAGIC = 0x53544950; // "STIP"
+
+        private final FileChannel channel;
+        private long writePosition;
+        private long liveBytes;
+
+        StudentPageFile(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE);
+            header.putInt(MAGIC).putInt(PAGE_SIZE).rewind();
+            channel.write(header, 0);
+            writePosition = PAGE_SIZE;
+        }
+
+        /** Appends a record and returns its address. */
+        long append(byte[] record) throws IOException {
+            int length = Integer.BYTES + record.length;
+            long pageRemaining = PAGE_SIZE - (writePosition % PAGE_SIZE);
+            if (length <= PAGE_SIZE && length > pageRemaining)
+                writePosition += pageRemaining; // start on a fresh page; a bigger record spans pages anyway
+            long address = writePosition;
+            ByteBuffer buf = ByteBuffer.allocate(length);
+            buf.putInt(record.length).put(record).flip();
+            while (buf.hasRemaining())
+                channel.write(buf, address + buf.position());
+            writePosition += length;
+            liveBytes += length;
+            return address;
+        }
+
+        byte[] read(long address) throws IOException {
+            ByteBuffer len = ByteBuffer.allocate(Integer.BYTES);
+            readFully(len, address);
+            ByteBuffer body = ByteBuffer.allocate(len.flip().getInt());
+            readFully(body, address + Integer.BYTES);
+            return body.array();
+        }
+
+        /** Marks an old record version as garbage. */
+        void release(int recordLength) {
+            liveBytes -= Integer.BYTES + recordLength;
+        }
+
+        long fileBytes() {
+            return writePosition;
+        }
+
+        long liveBytes() {
+            return liveBytes;
+        }
+
+        private void readFully(ByteBuffer buf, long position) throws IOException {
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, position + buf.position()) < 0)
+                    throw new EOFException("Record at " + position + " is truncated");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // ── Record encoding ──
+
+    static byte[] encode(Student s) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(s.getId());
+            out.writeUTF(s.getName());
+            out.writeByte(s.getDepartment().ordinal());
+            out.writeLong(s.getEnrollmentDate().toEpochDay());
+            out.writeShort(s.getCourses().size());
+            for (Map.Entry<String, Grade> e : s.getCourses().entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeByte(e.getValue().ordinal());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static Student decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        int id = in.readInt();
+        String name = in.readUTF();
+        Department dept = Department.values()[in.readByte()];
+        LocalDate enrolled = LocalDate.ofEpochDay(in.readLong());
+        Student s = new Student(id, name, dept, enrolled);
+        int courses = in.readShort();
+        Grade[] grades = Grade.values();
+        for (int i = 0; i < courses; i++)
+            s.addCourseQuietly(in.readUTF(), grades[in.readByte()]);
+        return s;
+    }
+
+    /** A detached copy: what callers get, so the tier's own objects never leak out. */
+    static Student copyOf(Student s) throws IOException {
+        return decode(encode(s));
+    }
+
+    // =====================================================================
+    // HOT TIER — bounded, frequency-aware (sampled LFU with aging)
+    // =====================================================================
+
+    private static final class Hot {
+        final Student student;
+        int frequency = 1;
+        int slot; // position in hotIds, for O(1) random sampling and removal
+        int writtenVersion; // student version last written to disk, -1 = never
+
+        Hot(Student student, int writtenVersion) {
+            this.student = student;
+            this.writtenVersion = writtenVersion;
+        }
+
+        boolean dirty() {
+            return writtenVersion != student.getVersion();
+        }
+    }
+
+    static final int EVICTION_SAMPLES = 5;
+    static final int MAX_FREQUENCY = 255;
+
+    private final int hotCapacity;
+    private final Map<Integer, Hot> hot = new HashMap<>();
+    private final List<Integer> hotIds = new ArrayList<>();
+    private final Map<Integer, Integer> recordLengths = new HashMap<>();
+    private final Random random = new Random();
+    private final BPlusTree coldIndex = new BPlusTree();
+    private final StudentPageFile pageFile;
+    private long accessesSinceAging;
+
+    private long hotHits;
+    private long coldHits;
+    private long misses;
+    private long spills;
+    private long evictions;
+
+    TieredStudentRepository(int hotCapacity, Path spillFile) throws IOException {
+        if (hotCapacity <= 0)
+            throw new IllegalArgumentException("hotCapacity must be positive: " + hotCapacity);
+        this.hotCapacity = hotCapacity;
+        this.pageFile = new StudentPageFile(spillFile);
+    }
+
+    void add(Student student) throws StudentException, IOException {
+        int id = student.getId();
+        if (hot.containsKey(id) || coldIndex.get(id) >= 0)
+            throw new StudentException("Student with ID " + id + " already exists");
+        admit(copyOf(student), -1);
+    }
+
+    /** Stores a changed copy of a student; it stays hot and is written on eviction or flush(). */
+    void update(Student student) throws StudentException, IOException {
+        int id = student.getId();
+        Hot h = hot.get(id);
+        if (h == null && coldIndex.get(id) < 0)
+            throw new StudentException("No student with ID " + id);
+        if (h != null)
+            dropHot(h);
+        admit(copyOf(student), -1); // -1: never written, so dirty
+    }
+
+    /** Transparent lookup: memory first, then the on-disk tier. Returns a copy — see update(). */
+    Optional<Student> findById(int id) throws IOException {
+        Hot h = hot.get(id);
+        if (h != null) {
+            hotHits++;
+            touch(h);
+            return Optional.of(copyOf(h.student));
+        }
+        long address = coldIndex.get(id);
+        if (address < 0) {
+            misses++;
+            return Optional.empty();
+        }
+        coldHits++;
+        Student student = decode(pageFile.read(address));
+        admit(student, student.getVersion()); // clean — disk copy is current
+        return Optional.of(copyOf(student));
+    }
+
+    boolean remove(int id) {
+        Hot h = hot.get(id);
+        if (h != null)
+            dropHot(h);
+        boolean wasCold = coldIndex.remove(id);
+        Integer length = recordLengths.remove(id);
+        if (length != null)
+            pageFile.release(length);
+        return h != null || wasCold;
+    }
+
+    /** Writes every changed hot student so the disk tier is complete. */
+    void flush() throws IOException {
+        for (Hot h : hot.values())
+            if (h.dirty())
+                spill(h);
+    }
+
+    int size() {
+        int coldOnly = coldIndex.size();
+        for (Integer id : hotIds)
+            if (coldIndex.get(id) >= 0)
+                coldOnly--;
+        return hot.size() + coldOnly;
+    }
+
+    int hotSize() {
+        return hot.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        pageFile.close();
+    }
+
+    // ── tier plumbing ──
+
+    private void admit(Student student, int writtenVersion) throws IOException {
+        while (hot.size() >= hotCapacity)
+            evictOne();
+        Hot h = new Hot(student, writtenVersion);
+        h.slot = hotIds.size();
+        hotIds.add(student.getId());
+        hot.put(student.getId(), h);
+        touch(h);
+    }
+
+    private void touch(Hot h) {
+        if (h.frequency < MAX_FREQUENCY)
+            h.frequency++;
+        if (++accessesSinceAging >= 10L * hotCapacity) {
+            // Aging: halve every counter so old popularity fades
+            for (Hot each : hot.values())
+                each.frequency >>= 1;
+            accessesSinceAging = 0;
+        }
+    }
+
+    private void evictOne() throws IOException {
+        Hot victim = null;
+        for (int i = 0; i < EVICTION_SAMPLES; i++) {
+            Hot candidate = hot.get(hotIds.get(random.nextInt(hotIds.size())));
+            if (victim == null || candidate.frequency < victim.frequency)
+                victim = candidate;
+        }
+        if (victim.dirty())
+            spill(victim);
+        dropHot(victim);
+        evictions++;
+    }
+
+    private void spill(Hot h) throws IOException {
+        byte[] record = encode(h.student);
+        long address = pageFile.append(record);
+        Integer oldLength = recordLengths.put(h.student.getId(), record.length);
+        if (oldLength != null)
+            pageFile.release(oldLength);
+        coldIndex.put(h.student.getId(), address);
+        h.writtenVersion = h.student.getVersion();
+        spills++;
+    }
+
+    /** Swap-with-last removal keeps hotIds dense for random sampling. */
+    private void dropHot(Hot h) {
+        int last = hotIds.size() - 1;
+        int movedId = hotIds.get(last);
+        hotIds.set(h.slot, movedId);
+        hot.get(movedId).slot = h.slot;
+        hotIds.remove(last);
+        hot.remove(h.student.getId());
+    }
+
+    // ── Metrics ──
+
+    double hitRatio() {
+        long total = hotHits + coldHits + misses;
+        return total == 0 ? 0.0 : (double) hotHits / total;
+    }
+
+    double missRatio() {
+        long total = hotHits + coldHits + misses;
+        return total == 0 ? 0.0 : (double) coldHits / total;
+    }
+
+    String stats() {
+        return String.format(
+                "hot %d/%d, cold index %d ids | lookups: hot hits=%d, disk loads=%d, unknown=%d "
+                        + "(hit ratio %.1f%%, miss ratio %.1f%%) | spills=%d, evictions=%d | file %,d bytes (%,d live)",
+                hot.size(), hotCapacity, coldIndex.size(), hotHits, coldHits, misses,
+                hitRatio() * 100, missRatio() * 100, spills, evictions, pageFile.fileBytes(), pageFile.liveBytes());
+    }
+
+    // =====================================================================
+    // MAIN — 50k archived students, 2k kept hot, skewed lookups
+    // =====================================================================
+    public static void main(String[] args) throws Exception {
+        Path file = Files.createTempFile("students-cold", ".pages");
+        try (TieredStudentRepository repo = new TieredStudentRepository(2_000, file)) {
+            Department[] depts = Department.values();
+            Grade[] grades = Grade.values();
+            Random random = new Random(7);
+            int[] ids = new int[50_000];
+            for (int i = 0; i < ids.length; i++) {
+                Student s = new Student("Archived " + i, depts[i % depts.length]);
+                for (int c = 0; c < 6; c++)
+                    s.addCourse("COURSE" + (100 + random.nextInt(60)), grades[random.nextInt(grades.length)]);
+                repo.add(s);
+                ids[i] = s.getId();
+            }
+            System.out.println("After load:   " + repo.stats());
+
+            // 90% of lookups go to the 1,000 most recent students
+            for (int i = 0; i < 200_000; i++) {
+                int index = random.nextInt(10) < 9
+                        ? ids.length - 1 - random.nextInt(1_000)
+                        : random.nextInt(ids.length);
+                repo.findById(ids[index]).orElseThrow();
+            }
+            System.out.println("After reads:  " + repo.stats());
+
+            Student oldest = repo.findById(ids[0]).orElseThrow();
+            oldest.addCourse("RETAKE101", Grade.A); // a copy: not stored until update()
+            repo.update(oldest);
+            repo.flush();
+            System.out.println("Oldest student round-trips: " + repo.findById(ids[0]).orElseThrow());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,534 @@
+/**
+ * AsyncEventBus.java — Observers on Their Own Threads, Fed by a Ring Buffer
+ * ==========================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: EventEmitter.emit() calls every observer ON THE PUBLISHER'S
+ *    THREAD. If one display takes 5 ms to redraw, every updatePrice() takes
+ *    5 ms — the slowest subscriber sets the pace for everybody.
+ *
+ *    Decouple them with a queue: the publisher drops the event in and
+ *    returns; each subscriber has its own thread that takes events out.
+ *    This bus uses the queue design of the LMAX Disruptor:
+ *
+ *        slots:   [ 0 ][ 1 ][ 2 ][ 3 ][ 4 ][ 5 ][ 6 ][ 7 ]   ← allocated once
+ *                        ▲                   ▲
+ *                 slow consumer          publisher (sequence 13 → slot 13 & 7 = 5)
+ *                 (sequence 9)
+ *
+ *    • ONE preallocated array of slots, reused forever: publishing writes
+ *      two fields into an existing slot instead of allocating a node.
+ *    • Sequences only grow; slot = sequence & (size - 1), so the size is a
+ *      power of two and there is no modulo.
+ *    • Every consumer keeps its OWN sequence — how far it has read. Nobody
+ *      removes anything; a slot may be reused once the slowest consumer has
+ *      passed it. A publisher that laps the slowest consumer waits (that is
+ *      the only time a subscriber can slow a publisher down: the ring is
+ *      the buffer that absorbs bursts).
+ *    • Publishers CLAIM a sequence with one atomic increment, fill the slot,
+ *      then PUBLISH it by writing the slot's round number, so several
+ *      threads can publish at once.
+ *
+ *    BATCHING: a consumer that wakes up and finds 40 events waiting handles
+ *    all 40, then announces its progress with ONE volatile write instead of
+ *    40. The further behind it is, the bigger its batches — it catches up.
+ *    A BatchObserver goes further and gets those 40 events in ONE call, so
+ *    the batch size adapts by itself: 1 while the subscriber keeps up (no
+ *    added latency), up to maxBatch when it lags and per-event cost matters.
+ *
+ *    WAITING: what does a consumer do when the ring is empty?
+ *      BUSY_SPIN  loop on Thread.onSpinWait()   lowest latency, burns a core
+ *      YIELDING   spin a little, then yield      low latency, polite
+ *      SLEEPING   spin, yield, then park 50 µs   little CPU, some latency
+ *      BLOCKING   sleep until a publisher signals   least CPU, most latency
+ *
+ * Topics covered:
+ *   1. Producer/consumer decoupling; the Disruptor ring buffer
+ *   2. Sequences, memory visibility through volatile/atomic writes
+ *   3. Batching and wait strategies: latency vs CPU trade-offs
+ *   4. Batch delivery: one call per batch instead of one per event
+ *
+ * 🔗 SEE ALSO: p11_DesignPatterns/ObserverPatternDemo.java (EventEmitter can deliver through this bus)
+ * 🔗 SEE ALSO: p10_Concurrency/ThreadBasicsDemo.java
+ */
+package p11_DesignPatterns;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import p11_DesignPatterns.ObserverPatternDemo.BatchObserver;
+import p11_DesignPatterns.ObserverPatternDemo.Observer;
+
+public class AsyncEventBus implements AutoCloseable {
+
+    enum WaitStrategy {
+        BUSY_SPIN, YIELDING, SLEEPING, BLOCKING
+    }
+
+    static final int DEFAULT_CAPACITY = 1 << 14;
+    static final int DEFAULT_MAX_BATCH = 256;
+
+    /** A reusable event holder. Written only by the publisher that claimed it. */
+    private static final class Slot {
+        String event;
+        Object data;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final int shift; // sequence >>> shift is the round number
+    /** published[i] = round of the sequence last published into slot i. */
+    private final AtomicIntegerArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    /** A lower bound on every consumer's sequence, so publishers rarely scan them all. */
+    private volatile long gatingCache = -1;
+
+    private final WaitStrategy waitStrategy;
+    private final int maxBatch;
+    private volatile Consumer[] consumers = new Consumer[0]; // copy-on-write
+    /** Subscribers per event name; an event with none is absent. Updated under the bus monitor. */
+    private final Map<String, Integer> subscriberCounts = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+    /** Publishers between their closed-check and publishing the slot; close() waits for them. */
+    private final AtomicInteger publishing = new AtomicInteger();
+
+    // BLOCKING strategy: consumers sleep on this condition
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final AtomicLong sleepers = new AtomicLong();
+
+    private final AtomicLong fullRingWaits = new AtomicLong();
+
+    AsyncEventBus() {
+        this(DEFAULT_CAPACITY, WaitStrategy.YIELDING, DEFAULT_MAX_BATCH);
+    }
+
+    AsyncEventBus(int capacity, WaitStrategy waitStrategy, int maxBatch) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        if (maxBatch < 1)
+            throw new IllegalArgumentException("maxBatch must be positive: " + maxBatch);
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++)
+            slots[i] = new Slot();
+        this.mask = capacity - 1;
+        this.shift = Integer.numberOfTrailingZeros(capacity);
+        this.published = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++)
+            published.set(i, -1);
+        this.waitStrategy = Objects.requireNonNull(waitStrategy);
+        this.maxBatch = maxBatch;
+    }
+
+    // =====================================================================
+    // SUBSCRIBERS — one thread each
+    // =====================================================================
+
+    /** Starts a consumer thread that delivers events named event to observer, in publish order. */
+    synchronized void subscribe(String event, Observer observer) {
+        checkOpen();
+        // Start after everything claimed so far: those events were emitted before we subscribed
+        Consumer consumer = new Consumer(event, observer, claimed.get());
+        Consumer[] grown = Arrays.copyOf(consumers, consumers.length + 1);
+        grown[consumers.length] = consumer;
+        consumers = grown;
+        subscriberCounts.merge(event, 1, Integer::sum);
+        consumer.thread.start();
+    }
+
+    /**
+     * Stops delivery to observer (matched with equals(), like the synchronous
+     * EventEmitter); events it had not reached yet are dropped.
+     */
+    synchronized void unsubscribe(String event, Observer observer) {
+        for (int i = 0; i < consumers.length; i++) {
+            Consumer c = consumers[i];
+            if (c.event.equals(event) && c.observer.equals(observer)) {
+                Consumer[] shrunk = new Consumer[consumers.length - 1];
+                System.arraycopy(consumers, 0, shrunk, 0, i);
+                System.arraycopy(consumers, i + 1, shrunk, i, consumers.length - i - 1);
+                consumers = shrunk;
+                subscriberCounts.computeIfPresent(event, (e, n) -> n == 1 ? null : n - 1);
+                c.cancelled = true;
+                wakeSleepers();
+                return;
+            }
+        }
+    }
+
+    /** True if an event with this name would reach at least one subscriber. */
+    boolean hasSubscribers(String event) {
+        return subscriberCounts.containsKey(event);
+    }
+
+    // =====================================================================
+    // PUBLISHING — claim, fill, publish
+    // =====================================================================
+
+    /**
+     * Returns as soon as the event is in the ring; waits only if a subscriber is a whole ring behind.
+     * Once close() has begun, publish() throws IllegalStateException; an event it accepted is still delivered.
+     */
+    void publish(String event, Object data) {
+        // Announce first, check second; close() sets closed first, counts second — so
+        // either we see closed, or close() sees us and waits until the slot is published
+        publishing.incrementAndGet();
+        try {
+            checkOpen();
+            claimAndPublish(event, data);
+        } finally {
+            publishing.decrementAndGet();
+        }
+    }
+
+    private void claimAndPublish(String event, Object data) {
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - slots.length; // the sequence whose slot we are about to reuse
+        if (wrapPoint > gatingCache)
+            waitForSpace(wrapPoint);
+        int index = (int) (sequence & mask);
+        Slot slot = slots[index];
+        slot.event = event;
+        slot.data = data;
+        published.set(index, (int) (sequence >>> shift)); // volatile write: makes the slot visible
+        if (waitStrategy == WaitStrategy.BLOCKING && sleepers.get() > 0)
+            wakeSleepers();
+    }
+
+    private void waitForSpace(long wrapPoint) {
+        long min;
+        int attempt = 0;
+        while (wrapPoint > (min = minimumSequence(wrapPoint))) {
+            if (attempt == 0)
+                fullRingWaits.incrementAndGet();
+            pause(attempt++);
+        }
+        gatingCache = min;
+    }
+
+    /** The slowest consumer's sequence; with no consumers, nothing holds the slot back. */
+    private long minimumSequence(long wrapPoint) {
+        long min = Long.MAX_VALUE;
+        for (Consumer c : consumers)
+            min = Math.min(min, c.sequence);
+        return min == Long.MAX_VALUE ? wrapPoint : min;
+    }
+
+    /** The last sequence in [from, limit] that is published with no gaps before it, or from - 1. */
+    private long highestPublished(long from, long limit) {
+        for (long s = from; s <= limit; s++)
+            if (published.get((int) (s & mask)) != (int) (s >>> shift))
+                return s - 1;
+        return limit;
+    }
+
+    // =====================================================================
+    // WAITING
+    // =====================================================================
+
+    /** How a consumer with nothing to do (or a publisher facing a full ring) passes time. */
+    private void pause(int attempt) {
+        switch (waitStrategy) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case YIELDING -> {
+                if (attempt < 100)
+                    Thread.onSpinWait();
+                else
+                    Thread.yield();
+            }
+            case SLEEPING, BLOCKING -> { // BLOCKING consumers sleep in awaitPublish; publishers land here
+                if (attempt < 100)
+                    Thread.onSpinWait();
+                else if (attempt < 200)
+                    Thread.yield();
+                else
+                    LockSupport.parkNanos(50_000);
+            }
+        }
+    }
+
+    /** BLOCKING: sleeps until a publisher signals, unless sequence became available meanwhile. */
+    private void awaitPublish(long sequence, Consumer consumer) throws InterruptedException {
+        lock.lock();
+        try {
+            sleepers.incrementAndGet();
+            // Re-check after announcing ourselves: a publisher either sees us or we see its event
+            if (highestPublished(sequence, sequence) < sequence && consumer.running && !consumer.cancelled)
+                available.await(10, TimeUnit.MILLISECONDS);
+        } finally {
+            sleepers.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    private void wakeSleepers() {
+        lock.lock();
+        try {
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // =====================================================================
+    // CONSUMER
+    // =====================================================================
+
+    private final class Consumer implements Runnable {
+        final String event;
+        final Observer observer;
+        final BatchObserver batchObserver; // observer, if it takes batches
+        final Object[] batch; // reused for every batch handed to batchObserver
+        final Thread thread;
+        /** Highest sequence this consumer is done with; publishers read it to find free slots. */
+        volatile long sequence;
+        volatile boolean running = true;
+        volatile boolean cancelled;
+        // statistics, written by the consumer thread only
+        volatile long delivered;
+        volatile long batches;
+        volatile long failures;
+
+        Consumer(String event, Observer observer, long start) {
+            this.event = event;
+            this.observer = observer;
+            this.batchObserver = observer instanceof BatchObserver b ? b : null;
+            this.batch = batchObserver != null ? new Object[maxBatch] : null;
+            this.sequence = start;
+            this.thread = new Thread(this, "event-bus-" + event);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long next = sequence + 1;
+            int idle = 0;
+            try {
+                while (!cancelled) {
+                    // Read running BEFORE scanning: close() clears it only after every accepted
+                    // publish is visible, so "stopped, then nothing found" really means drained
+                    boolean open = running;
+                    long last = highestPublished(next, next + maxBatch - 1);
+                    if (last < next) {
+                        if (!open)
+                            return; // closed and drained
+                        if (waitStrategy == WaitStrategy.BLOCKING)
+                            awaitPublish(next, this);
+                        else
+                            pause(idle++);
+                        continue;
+                    }
+                    int count = 0;
+                    for (long s = next; s <= last; s++) {
+                        Slot slot = slots[(int) (s & mask)];
+                        if (event.equals(slot.event)) {
+                            if (batchObserver != null)
+                                batch[count] = slot.data; // copied out before the slot can be reused
+                            else
+                                deliver(slot.event, slot.data);
+                            count++;
+                        }
+                    }
+                    if (batchObserver != null && count > 0)
+                        deliverBatch(count);
+                    sequence = last; // one volatile write for the whole batch
+                    delivered += count;
+                    batches++;
+                    next = last + 1;
+                    idle = 0;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /** A throwing observer must not kill its thread: the events behind would never arrive. */
+        private void deliver(String name, Object data) {
+            try {
+                observer.update(name, data);
+            } catch (RuntimeException e) {
+                failures++;
+            }
+        }
+
+        private void deliverBatch(int count) {
+            try {
+                batchObserver.updateBatch(event, batch, count);
+            } catch (RuntimeException e) {
+                failures++;
+            } finally {
+                Arrays.fill(batch, 0, count, null); // don't keep delivered events alive
+            }
+        }
+    }
+
+    // =====================================================================
+    // LIFECYCLE AND METRICS
+    // =====================================================================
+
+    /**
+     * Rejects new events, lets every consumer finish what was published, then
+     * stops the threads. If interrupted while waiting, returns early with the
+     * interrupt flag set; the daemon consumers still drain in the background.
+     */
+    @Override
+    public void close() {
+        Consumer[] all;
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            all = consumers;
+        }
+        while (publishing.get() > 0) // publishers that got past checkOpen() finish first
+            Thread.yield();
+        for (Consumer c : all)
+            c.running = false;
+        wakeSleepers();
+        try {
+            for (Consumer c : all)
+                c.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed)
+            throw new IllegalStateException("Event bus is closed");
+    }
+
+    long published() {
+        return claimed.get() + 1;
+    }
+
+    /** Times a publisher found the ring full and had to wait for a slow subscriber. */
+    long fullRingWaits() {
+        return fullRingWaits.get();
+    }
+
+    String stats() {
+        long delivered = 0, batches = 0, failures = 0;
+        for (Consumer c : consumers) {
+            delivered += c.delivered;
+            batches += c.batches;
+            failures += c.failures;
+        }
+        return String.format("published %,d, delivered %,d in %,d batches (avg %.1f), full-ring waits %,d, "
+                + "observer failures %,d", published(), delivered, batches, batches == 0 ? 0.0 : (double) delivered
+                        / batches, fullRingWaits(), failures);
+    }
+
+    // =====================================================================
+    // MAIN — publisher latency with a slow display, then wait strategies
+    // =====================================================================
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== updatePrice() latency with one slow display (2 ms per update) ===");
+        Observer slowDisplay = (event, data) -> sleepQuietly(2);
+        Observer fastDisplay = (event, data) -> {
+        };
+        for (boolean async : new boolean[] { false, true }) {
+            AsyncEventBus bus = async ? new AsyncEventBus() : null;
+            ObserverPatternDemo.StockMarket market = async ? new ObserverPatternDemo.StockMarket(bus)
+                    : new ObserverPatternDemo.StockMarket();
+            market.subscribe("price-change", slowDisplay);
+            market.subscribe("price-change", fastDisplay);
+            long[] latencies = new long[200];
+            for (int i = 0; i < latencies.length; i++) {
+                long start = System.nanoTime();
+                market.updatePrice("AAPL", 150 + i * 0.01);
+                latencies[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(latencies);
+            System.out.printf("  %-12s p50 %8.1f µs   p99 %8.1f µs%n", async ? "async bus" : "synchronous",
+                    latencies[latencies.length / 2] / 1e3, latencies[latencies.length * 99 / 100] / 1e3);
+            if (bus != null) {
+                long start = System.nanoTime();
+                bus.close(); // the slow display is still working through its backlog
+                System.out.printf("  (the slow display caught up %.0f ms after the last tick; %s)%n",
+                        (System.nanoTime() - start) / 1e6, bus.stats());
+            }
+        }
+
+        int events = 2_000_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%n=== %,d events, 1 publisher, 2 subscribers, by wait strategy (%d cores) ===%n", events,
+                cores);
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            if (strategy == WaitStrategy.BUSY_SPIN && cores < 3) {
+                System.out.println("  BUSY_SPIN    skipped: each spinning consumer needs a core of its own");
+                continue;
+            }
+            AsyncEventBus bus = new AsyncEventBus(DEFAULT_CAPACITY, strategy, DEFAULT_MAX_BATCH);
+            long[] sums = new long[2];
+            bus.subscribe("tick", (event, data) -> sums[0] += (Integer) data);
+            bus.subscribe("tick", (event, data) -> sums[1] += (Integer) data);
+            Integer[] payloads = new Integer[1024];
+            for (int i = 0; i < payloads.length; i++)
+                payloads[i] = i;
+            long start = System.nanoTime();
+            for (int i = 0; i < events; i++)
+                bus.publish("tick", payloads[i & 1023]);
+            bus.close();
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("  %-12s %6.1f M events/s  [%s]%n", strategy, events / (elapsed / 1e9) / 1e6,
+                    bus.stats());
+        }
+
+        System.out.printf("%n=== %,d events, 3 different subscribers: one call per event vs per batch ===%n", events);
+        long[] sums = new long[3];
+        // Three observer classes: the call in deliver() sees all three, so the JIT can't inline it
+        Observer[] perEvent = { (event, data) -> sums[0] += (Integer) data,
+                (event, data) -> sums[1] ^= (Integer) data,
+                (event, data) -> sums[2] = Math.max(sums[2], (Integer) data) };
+        BatchObserver[] perBatch = { (event, data, count) -> {
+            for (int i = 0; i < count; i++)
+                sums[0] += (Integer) data[i];
+        }, (event, data, count) -> {
+            for (int i = 0; i < count; i++)
+                sums[1] ^= (Integer) data[i];
+        }, (event, data, count) -> {
+            for (int i = 0; i < count; i++)
+                sums[2] = Math.max(sums[2], (Integer) data[i]);
+        } };
+        Integer[] payloads = new Integer[1024];
+        for (int i = 0; i < payloads.length; i++)
+            payloads[i] = i;
+        long[] best = { Long.MAX_VALUE, Long.MAX_VALUE };
+        String[] stats = new String[2];
+        for (int round = 0; round < 4; round++) { // rounds interleaved; the first warms up the JIT
+            for (int k = 0; k < 2; k++) {
+                AsyncEventBus bus = new AsyncEventBus();
+                for (Observer observer : k == 0 ? perEvent : perBatch)
+                    bus.subscribe("tick", observer);
+                long start = System.nanoTime();
+                for (int i = 0; i < events; i++)
+                    bus.publish("tick", payloads[i & 1023]);
+                bus.close();
+                long elapsed = System.nanoTime() - start;
+                if (round > 0 && elapsed < best[k]) {
+                    best[k] = elapsed;
+                    stats[k] = bus.stats();
+                }
+            }
+        }
+        for (int k = 0; k < 2; k++)
+            System.out.printf("  %-14s %5.1f ns per delivered event (publishing included)%n    [%s]%n",
+                    k == 0 ? "Observer" : "BatchObserver", best[k] / (events * 3.0), stats[k]);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * ConflatingObserver.java — A Slow Display Gets the Latest Price, Not a Backlog
+ * ==============================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: During a burst the market ticks AAPL 500 times in a second,
+ *    but a display that redraws 100 times a second can only show 100 of
+ *    them — and it only NEEDS the last one. A queue (AsyncEventBus) hands it
+ *    all 500 in order: the display falls further behind, the queue grows
+ *    with the tick rate, and it shows prices that were stale long ago.
+ *
+ *    CONFLATION keeps at most ONE pending change per symbol:
+ *
+ *        tick AAPL 150 → pending {AAPL: 149→150}          symbol queued
+ *        tick AAPL 151 → pending {AAPL: 149→151, 1 skipped}   (merged)
+ *        tick MSFT 300 → pending {AAPL: …, MSFT: 299→300}  symbol queued
+ *        display takes AAPL → shows "149 → 151 (1 ticks skipped)"
+ *
+ *    • Memory and delivery work are bounded by the number of SYMBOLS, not
+ *      by the tick rate: a symbol is in the ready queue at most once.
+ *    • A merged change keeps the OLD price the display saw last and the
+ *      NEWEST price, so "old → new" is still true for this display.
+ *    • Nothing is lost that matters: the display always ends on every
+ *      symbol's final price, and skipped says how many ticks it missed.
+ *
+ *    Each ConflatingObserver has its own thread, so the publisher never
+ *    waits for the display. update() is just one ConcurrentHashMap.merge().
+ *
+ * Topics covered:
+ *   1. Conflation: trading completeness for bounded staleness and memory
+ *   2. ConcurrentHashMap.merge() as an atomic read-modify-write
+ *   3. A per-subscriber worker thread with a blocking ready queue
+ *
+ * 🔗 SEE ALSO: p11_DesignPatterns/ObserverPatternDemo.java (StockMarket.subscribeConflated)
+ * 🔗 SEE ALSO: p11_DesignPatterns/AsyncEventBus.java (delivers every event, in order)
+ */
+package p11_DesignPatterns;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import p11_DesignPatterns.ObserverPatternDemo.Observer;
+import p11_DesignPatterns.ObserverPatternDemo.PriceChange;
+import p11_DesignPatterns.ObserverPatternDemo.StockMarket;
+
+public class ConflatingObserver implements Observer, AutoCloseable {
+
+    private final Observer target;
+    /** The change each symbol is waiting to deliver, already merged with any later ticks. */
+    private final Map<String, PriceChange> pending = new ConcurrentHashMap<>();
+    /** Symbols with a pending change, oldest first; each symbol at most once. */
+    private final LinkedBlockingQueue<String> ready = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private final LongAdder received = new LongAdder();
+    // written by the delivery thread only
+    private volatile long delivered;
+    private volatile long skipped;
+    private volatile long failures;
+
+    ConflatingObserver(Observer target) {
+        this.target = Objects.requireNonNull(target, "target");
+        this.thread = new Thread(this::deliverLoop, "conflating-observer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Called by the publisher: merges the tick into the symbol's pending change and returns at once. */
+    @Override
+    public void update(String event, Object data) {
+        if (!(data instanceof PriceChange change))
+            throw new IllegalArgumentException("ConflatingObserver needs PriceChange events, got " + data);
+        received.increment();
+        // merge() returns change itself only if nothing was pending: then (and only then) queue the symbol
+        if (pending.merge(change.symbol(), change, PriceChange::conflate) == change)
+            ready.add(change.symbol());
+    }
+
+    private void deliverLoop() {
+        try {
+            while (running || !ready.isEmpty()) {
+                String symbol = ready.poll(10, TimeUnit.MILLISECONDS);
+                if (symbol == null)
+                    continue;
+                // remove() takes the merged change; a tick arriving after this starts a new one
+                PriceChange change = pending.remove(symbol);
+                if (change == null)
+                    continue;
+                try {
+                    target.update("price-change", change);
+                } catch (RuntimeException e) {
+                    failures++;
+                }
+                delivered++;
+                skipped += change.skipped();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Delivers what is still pending, then stops the thread. Unsubscribe first.
+     * If interrupted while waiting, returns early with the interrupt flag set.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Symbols currently waiting for the display — never more than the number of symbols. */
+    int backlog() {
+        return pending.size();
+    }
+
+    String stats() {
+        return String.format("received %,d, delivered %,d, ticks skipped %,d, observer failures %,d",
+                received.sum(), delivered, skipped, failures);
+    }
+
+    // =====================================================================
+    // MAIN — a burst of ticks, a slow display: queued vs conflated
+    // =====================================================================
+    public static void main(String[] args) throws InterruptedException {
+        String[] symbols = { "AAPL", "MSFT", "GOOGL", "AMZN", "NVDA", "META", "TSLA", "NFLX", "AMD", "INTC" };
+        int ticks = 10_000;
+        System.out.printf("=== Burst of %,d ticks over %d symbols, display takes ~0.2 ms per update ===%n", ticks,
+                symbols.length);
+
+        for (boolean conflated : new boolean[] { false, true }) {
+            Map<String, Double> shown = new ConcurrentHashMap<>();
+            Observer slowDisplay = (event, data) -> {
+                LockSupport.parkNanos(200_000); // redraw
+                PriceChange change = (PriceChange) data;
+                shown.put(change.symbol(), change.newPrice());
+            };
+            AsyncEventBus bus = conflated ? null : new AsyncEventBus();
+            StockMarket market = conflated ? new StockMarket() : new StockMarket(bus);
+            ConflatingObserver conflating = null;
+            if (conflated)
+                conflating = market.subscribeConflated(slowDisplay);
+            else
+                market.subscribe("price-change", slowDisplay);
+
+            Random random = new Random(48);
+            double[] last = new double[symbols.length];
+            int maxBacklog = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < ticks; i++) {
+                int s = random.nextInt(symbols.length);
+                last[s] = 100 + random.nextInt(10_000) / 100.0;
+                market.updatePrice(symbols[s], last[s]);
+                if (conflating != null)
+                    maxBacklog = Math.max(maxBacklog, conflating.backlog());
+            }
+            long published = System.nanoTime() - start;
+            String stats;
+            if (conflating != null) {
+                market.unsubscribe("price-change", conflating);
+                conflating.close();
+                stats = conflating.stats() + String.format(", max backlog %d", maxBacklog);
+            } else {
+                bus.close();
+                stats = bus.stats();
+            }
+            long caughtUp = System.nanoTime() - start;
+
+            boolean current = true;
+            for (int s = 0; s < symbols.length; s++)
+                current &= shown.get(symbols[s]) == last[s];
+            System.out.printf("  %-10s ticks published in %6.0f ms, display caught up after %6.0f ms, "
+                    + "final prices %s%n    [%s]%n", conflated ? "conflated" : "queued", published / 1e6,
+                    caughtUp / 1e6, current ? "✓ all shown" : "✗ STALE", stats);
+        }
+
+        System.out.println("\n=== What a conflated display prints ===");
+        StockMarket market = new StockMarket();
+        ConflatingObserver display = market.subscribeConflated((event, data) -> {
+            LockSupport.parkNanos(5_000_000); // a 5 ms redraw
+            System.out.println("    " + data);
+        });
+        for (int i = 0; i <= 20; i++) {
+            market.updatePrice(i % 2 == 0 ? "AAPL" : "MSFT", 150 + i);
+            LockSupport.parkNanos(1_000_000); // a tick every 1 ms: five per redraw
+        }
+        market.unsubscribe("price-change", display);
+        display.close();
+        System.out.println("    [" + display.stats() + "]");
+    }
+}
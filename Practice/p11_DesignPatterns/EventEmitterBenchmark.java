@@ -0,0 +1,381 @@
+/**
+ * EventEmitterBenchmark.java — Stress-Testing and Timing a Concurrent EventEmitter
+ * =================================================================================
+ * CSE215 - Programming Language II
+ *
+ * 💡 INTUITION: "It works on my machine" means nothing for concurrent code —
+ *    races show up only when threads interleave just wrong. A STRESS TEST
+ *    makes that likely: many threads emitting while others subscribe and
+ *    unsubscribe as fast as they can, followed by invariants that must hold
+ *    no matter how the threads interleaved:
+ *
+ *      • nothing threw (no ConcurrentModificationException)
+ *      • an observer that was subscribed the whole time saw EVERY event
+ *      • after all churn threads unsubscribed, only the permanent observer
+ *        is left
+ *
+ *    The same test is run against a copy of the ORIGINAL emitter (HashMap of
+ *    ArrayLists, no synchronisation) to show what it guards against.
+ *
+ *    The benchmark then compares emit() throughput as publishers are added:
+ *      synchronized   the obvious fix — one lock around every method; every
+ *                     emit() from every thread queues up behind it
+ *      copy-on-write  EventEmitter: emit() reads an immutable array and
+ *                     takes no lock at all, so publishers never wait on
+ *                     each other
+ *
+ *    Last, the cost of ONE tick: nanoseconds and bytes allocated per
+ *    updatePrice(), for the original StockMarket (String.format payload
+ *    even with nobody listening, boxed Double prices) and the current one
+ *    (nothing built without observers, primitives for PriceObservers),
+ *    emit() by event name vs by int topic id, and emitAll() handing a
+ *    BatchObserver 64 events per call.
+ *
+ * Topics covered:
+ *   1. Stress testing with invariants
+ *   2. Lock contention vs lock-free reads
+ *   3. CountDownLatch to start threads together
+ *   4. Measuring allocation per operation (ThreadMXBean)
+ *
+ * 🔗 SEE ALSO: p11_DesignPatterns/ObserverPatternDemo.java (EventEmitter)
+ * 🔗 SEE ALSO: p10_Concurrency/ThreadBasicsDemo.java
+ */
+package p11_DesignPatterns;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import p11_DesignPatterns.ObserverPatternDemo.BatchObserver;
+import p11_DesignPatterns.ObserverPatternDemo.EventEmitter;
+import p11_DesignPatterns.ObserverPatternDemo.Observer;
+import p11_DesignPatterns.ObserverPatternDemo.PriceObserver;
+import p11_DesignPatterns.ObserverPatternDemo.StockMarket;
+
+public class EventEmitterBenchmark {
+
+    /** The three operations every emitter under test offers. */
+    interface Emitter {
+        void subscribe(String event, Observer observer);
+
+        void unsubscribe(String event, Observer observer);
+
+        void emit(String event, Object data);
+    }
+
+    /** The original EventEmitter, unchanged: no synchronisation at all. */
+    static final class UnsafeEmitter implements Emitter {
+        private final Map<String, List<Observer>> listeners = new HashMap<>();
+
+        @Override
+        public void subscribe(String event, Observer observer) {
+            listeners.computeIfAbsent(event, k -> new ArrayList<>()).add(observer);
+        }
+
+        @Override
+        public void unsubscribe(String event, Observer observer) {
+            List<Observer> list = listeners.get(event);
+            if (list != null)
+                list.remove(observer);
+        }
+
+        @Override
+        public void emit(String event, Object data) {
+            List<Observer> list = listeners.get(event);
+            if (list != null)
+                for (Observer observer : list)
+                    observer.update(event, data);
+        }
+    }
+
+    /** The original made safe the obvious way: one lock, held while observers run. */
+    static final class SynchronizedEmitter implements Emitter {
+        private final Map<String, List<Observer>> listeners = new HashMap<>();
+
+        @Override
+        public synchronized void subscribe(String event, Observer observer) {
+            listeners.computeIfAbsent(event, k -> new ArrayList<>()).add(observer);
+        }
+
+        @Override
+        public synchronized void unsubscribe(String event, Observer observer) {
+            List<Observer> list = listeners.get(event);
+            if (list != null)
+                list.remove(observer);
+        }
+
+        @Override
+        public synchronized void emit(String event, Object data) {
+            List<Observer> list = listeners.get(event);
+            if (list != null)
+                for (Observer observer : list)
+                    observer.update(event, data);
+        }
+    }
+
+    static Emitter copyOnWrite() {
+        EventEmitter emitter = new EventEmitter();
+        return new Emitter() {
+            @Override
+            public void subscribe(String event, Observer observer) {
+                emitter.subscribe(event, observer);
+            }
+
+            @Override
+            public void unsubscribe(String event, Observer observer) {
+                emitter.unsubscribe(event, observer);
+            }
+
+            @Override
+            public void emit(String event, Object data) {
+                emitter.emit(event, data);
+            }
+        };
+    }
+
+    // =====================================================================
+    // STRESS TEST
+    // =====================================================================
+
+    /** Returns a list of violated invariants; empty means the emitter passed. */
+    static List<String> stress(Emitter emitter, int publishers, int churners, int emitsPerPublisher)
+            throws InterruptedException {
+        LongAdder permanentSeen = new LongAdder();
+        Observer permanent = (event, data) -> permanentSeen.increment();
+        emitter.subscribe("tick", permanent);
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < publishers; p++) {
+            threads.add(new Thread(() -> {
+                await(start);
+                for (int i = 0; i < emitsPerPublisher && failure.get() == null; i++)
+                    emitter.emit("tick", i);
+            }));
+        }
+        AtomicBoolean publishing = new AtomicBoolean(true);
+        for (int c = 0; c < churners; c++) {
+            threads.add(new Thread(() -> {
+                Observer mine = (event, data) -> {
+                };
+                await(start);
+                while (publishing.get() && failure.get() == null) {
+                    emitter.subscribe("tick", mine);
+                    emitter.unsubscribe("tick", mine);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.setUncaughtExceptionHandler((thread, e) -> failure.compareAndSet(null, e));
+            t.start();
+        }
+        start.countDown();
+        for (int p = 0; p < publishers; p++)
+            threads.get(p).join();
+        publishing.set(false);
+        for (Thread t : threads)
+            t.join(5_000);
+
+        List<String> violations = new ArrayList<>();
+        if (failure.get() != null)
+            violations.add("threw " + failure.get());
+        long expected = (long) publishers * emitsPerPublisher;
+        if (failure.get() == null && permanentSeen.sum() != expected)
+            violations.add(String.format("permanent observer saw %,d of %,d events", permanentSeen.sum(), expected));
+        LongAdder after = new LongAdder();
+        Observer probe = (event, data) -> after.increment();
+        emitter.subscribe("tick", probe);
+        long before = permanentSeen.sum();
+        try {
+            emitter.emit("tick", -1);
+            if (permanentSeen.sum() - before != 1 || after.sum() != 1)
+                violations.add("observer list is wrong after the churn");
+        } catch (RuntimeException e) {
+            violations.add("emitter broken after the test: " + e);
+        }
+        return violations;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // =====================================================================
+    // THROUGHPUT
+    // =====================================================================
+
+    /** Events emitted per second by publishers threads together, each with 4 cheap observers. */
+    static double throughput(Emitter emitter, int publishers, int emitsPerPublisher) throws InterruptedException {
+        LongAdder sink = new LongAdder();
+        for (int i = 0; i < 4; i++) {
+            int k = i;
+            emitter.subscribe("tick", (event, data) -> {
+                if (data == null && k < 0) // never true; keeps the call from being optimised away
+                    sink.increment();
+            });
+        }
+        Integer payload = 42;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[publishers];
+        for (int p = 0; p < publishers; p++) {
+            threads[p] = new Thread(() -> {
+                await(start);
+                for (int i = 0; i < emitsPerPublisher; i++)
+                    emitter.emit("tick", payload);
+            });
+            threads[p].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread t : threads)
+            t.join();
+        return (double) publishers * emitsPerPublisher / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    // =====================================================================
+    // COST PER TICK — time and allocation
+    // =====================================================================
+
+    /** The original StockMarket: a boxed Double per tick, and a formatted payload built for nobody. */
+    static final class OriginalStockMarket {
+        private final Map<String, Double> prices = new HashMap<>();
+        final UnsafeEmitter emitter = new UnsafeEmitter();
+
+        void updatePrice(String symbol, double newPrice) {
+            double oldPrice = prices.getOrDefault(symbol, 0.0);
+            prices.put(symbol, newPrice);
+
+            String direction = newPrice > oldPrice ? "📈" : newPrice < oldPrice ? "📉" : "➡️";
+            emitter.emit("price-change", String.format("%s %s $%.2f → $%.2f", direction, symbol, oldPrice, newPrice));
+        }
+    }
+
+    interface Tick {
+        void run(int i);
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static void perTick(String label, int calls, Tick tick) {
+        perTick(label, calls, 1, tick);
+    }
+
+    /** Prints nanoseconds and bytes allocated per event, best of 5 runs after a warm-up. */
+    static void perTick(String label, int calls, int eventsPerCall, Tick tick) {
+        long bestNanos = Long.MAX_VALUE, bestBytes = Long.MAX_VALUE;
+        long thread = Thread.currentThread().getId();
+        for (int round = 0; round < 6; round++) {
+            long bytes = THREADS.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++)
+                tick.run(i);
+            long nanos = System.nanoTime() - start;
+            bytes = THREADS.getThreadAllocatedBytes(thread) - bytes;
+            if (round > 0) { // round 0 warms up the JIT
+                bestNanos = Math.min(bestNanos, nanos);
+                bestBytes = Math.min(bestBytes, bytes);
+            }
+        }
+        long events = (long) calls * eventsPerCall;
+        System.out.printf("  %-48s %7.1f ns   %6.1f bytes%n", label, (double) bestNanos / events,
+                (double) bestBytes / events);
+    }
+
+    static void costPerTick() {
+        String[] symbols = { "AAPL", "MSFT", "GOOGL", "AMZN", "NVDA", "META", "TSLA", "NFLX" };
+        double[] prices = new double[1024];
+        Random random = new Random(49);
+        for (int i = 0; i < prices.length; i++)
+            prices[i] = 100 + random.nextInt(10_000) / 100.0;
+        double[] sink = new double[1];
+        Observer objectObserver = (event, data) -> sink[0] += data != null ? 1 : 0;
+        PriceObserver priceObserver = (symbol, oldPrice, newPrice) -> sink[0] += newPrice - oldPrice;
+
+        OriginalStockMarket original = new OriginalStockMarket();
+        perTick("original updatePrice(), no observers", 200_000,
+                i -> original.updatePrice(symbols[i & 7], prices[i & 1023]));
+        original.emitter.subscribe("price-change", objectObserver);
+        original.emitter.subscribe("price-change", objectObserver);
+        perTick("original updatePrice(), 2 observers", 200_000,
+                i -> original.updatePrice(symbols[i & 7], prices[i & 1023]));
+
+        StockMarket market = new StockMarket();
+        perTick("updatePrice(), no observers", 2_000_000, i -> market.updatePrice(symbols[i & 7], prices[i & 1023]));
+        market.subscribe("price-change", objectObserver);
+        market.subscribe("price-change", objectObserver);
+        perTick("updatePrice(), 2 Observers (PriceChange object)", 2_000_000,
+                i -> market.updatePrice(symbols[i & 7], prices[i & 1023]));
+        StockMarket primitive = new StockMarket();
+        primitive.subscribe("price-change", priceObserver);
+        primitive.subscribe("price-change", priceObserver);
+        perTick("updatePrice(), 2 PriceObservers (primitives)", 2_000_000,
+                i -> primitive.updatePrice(symbols[i & 7], prices[i & 1023]));
+
+        EventEmitter emitter = new EventEmitter();
+        for (int k = 0; k < 4; k++)
+            emitter.subscribe("tick", objectObserver);
+        Integer payload = 42;
+        String[] names = new String[8]; // equal but distinct strings, as when names are built or read in
+        for (int k = 0; k < names.length; k++)
+            names[k] = new String("tick");
+        int tick = emitter.topic("tick");
+        perTick("emit(\"tick\", …) by name, 4 observers", 2_000_000, i -> emitter.emit(names[i & 7], payload));
+        perTick("emit(id, …) by topic id, 4 observers", 2_000_000, i -> emitter.emit(tick, payload));
+
+        EventEmitter batching = new EventEmitter();
+        BatchObserver batchObserver = (event, data, count) -> {
+            for (int i = 0; i < count; i++)
+                sink[0] += data[i] != null ? 1 : 0;
+        };
+        for (int k = 0; k < 4; k++)
+            batching.subscribe("tick", batchObserver);
+        Object[] block = new Object[64];
+        Arrays.fill(block, payload);
+        int batchTick = batching.topic("tick");
+        perTick("emitAll(id, 64 events), 4 BatchObservers", 2_000_000 / 64, 64,
+                i -> batching.emitAll(batchTick, block, block.length));
+        if (sink[0] == 42)
+            System.out.println(); // keeps the observers' work from being optimised away
+    }
+
+    // =====================================================================
+    // MAIN
+    // =====================================================================
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== Stress: 4 publishers × 200,000 emits, 2 threads subscribing/unsubscribing ===");
+        Map<String, Supplier<Emitter>> emitters = new LinkedHashMap<>();
+        emitters.put("original (unsafe)", UnsafeEmitter::new);
+        emitters.put("synchronized", SynchronizedEmitter::new);
+        emitters.put("copy-on-write", EventEmitterBenchmark::copyOnWrite);
+        for (Map.Entry<String, Supplier<Emitter>> e : emitters.entrySet()) {
+            List<String> violations = stress(e.getValue().get(), 4, 2, 200_000);
+            System.out.printf("  %-18s %s%n", e.getKey(), violations.isEmpty() ? "✓ all invariants hold"
+                    : "✗ " + String.join("; ", violations));
+        }
+
+        System.out.printf("%n=== emit() throughput, 4 observers (%d cores) ===%n",
+                Runtime.getRuntime().availableProcessors());
+        for (int publishers : new int[] { 1, 2, 4, 8 }) {
+            double[] best = new double[2];
+            for (int round = 0; round < 5; round++) { // early rounds warm up the JIT
+                best[0] = Math.max(best[0], throughput(new SynchronizedEmitter(), publishers, 2_000_000 / publishers));
+                best[1] = Math.max(best[1], throughput(copyOnWrite(), publishers, 2_000_000 / publishers));
+            }
+            System.out.printf("  %d publisher(s): synchronized %6.1f M/s   copy-on-write %6.1f M/s   (%.1fx)%n",
+                    publishers, best[0] / 1e6, best[1] / 1e6, best[1] / best[0]);
+        }
+
+        System.out.println("\n=== Cost of one tick ===");
+        costPerTick();
+    }
+}
@@ -19,10 +19,14 @@
  *
  * 🔗 SEE ALSO: p03_Interfaces/InterfaceExample.java
  * 🔗 SEE ALSO: p11_DesignPatterns/StrategyPatternDemo.java
+ * 🔗 SEE ALSO: p11_DesignPatterns/AsyncEventBus.java (observers on their own threads)
+ * 🔗 SEE ALSO: p11_DesignPatterns/ConflatingObserver.java (latest price per symbol for slow displays)
  */
 package p11_DesignPatterns;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ObserverPatternDemo {
 
@@ -38,50 +42,280 @@ public class ObserverPatternDemo {
         void update(String event, Object data);
     }
 
+    /**
+     * 📌 An observer that can take many events in one call. Where events pile
+     * up — an AsyncEventBus subscriber that fell behind, or emitAll() — it
+     * gets them all at once: one (megamorphic) interface call per batch
+     * instead of one per event, and a tight loop over an array inside.
+     * data[0..count) is only valid during the call: copy what you keep.
+     */
+    interface BatchObserver extends Observer {
+        void updateBatch(String event, Object[] data, int count);
+
+        @Override
+        default void update(String event, Object data) {
+            updateBatch(event, new Object[] { data }, 1);
+        }
+    }
+
     // =====================================================================
     // Subject (Observable)
     // =====================================================================
 
     /**
      * 📌 The Subject maintains a list of observers and notifies them of changes.
+     *
+     * By default emit() calls every observer on the emitting thread, so a slow
+     * observer slows the emitter down. Given an AsyncEventBus, emit() only
+     * queues the event and each observer runs on its own thread.
+     *
+     * Topics: an event name is registered ONCE with topic() and gets a small
+     * int id; observers live in an array indexed by that id. Hot publishers
+     * keep the id and call emit(int, …) — an array index instead of hashing
+     * the name on every event. The String methods still work and look the
+     * id up for you.
+     *
+     * Thread safety: each topic's observers are an ARRAY that is never
+     * modified — subscribe/unsubscribe build a new array and swap it in
+     * (copy-on-write, under a lock only writers take). emit() reads whichever
+     * array is current and loops over it: no lock, no iterator, and no
+     * ConcurrentModificationException when another thread subscribes
+     * mid-loop. Writes are rare, so copying on write is cheap overall.
      */
     static class EventEmitter {
-        private final Map<String, List<Observer>> listeners = new HashMap<>();
+        private static final Observer[] NONE = new Observer[0];
+
+        private final Map<String, Integer> topics = new ConcurrentHashMap<>();
+        private volatile String[] topicNames = new String[0];
+        /** observers[topic id]; the table and its rows are replaced, never modified. */
+        private volatile Observer[][] observers = new Observer[0][];
+        private final AsyncEventBus bus; // null → deliver on the emitting thread
+
+        EventEmitter() {
+            this(null);
+        }
+
+        EventEmitter(AsyncEventBus bus) {
+            this.bus = bus;
+        }
+
+        /** Returns event's topic id, registering it the first time. */
+        int topic(String event) {
+            Integer id = topics.get(event);
+            return id != null ? id : register(event);
+        }
+
+        private synchronized int register(String event) {
+            Integer id = topics.get(event);
+            if (id != null)
+                return id;
+            int next = topicNames.length;
+            String[] names = Arrays.copyOf(topicNames, next + 1);
+            names[next] = Objects.requireNonNull(event, "event");
+            Observer[][] table = Arrays.copyOf(observers, next + 1);
+            table[next] = NONE;
+            observers = table; // the row exists before anyone can learn the id
+            topicNames = names;
+            topics.put(event, next);
+            return next;
+        }
 
         void subscribe(String event, Observer observer) {
-            listeners.computeIfAbsent(event, k -> new ArrayList<>()).add(observer);
+            subscribe(topic(event), observer);
+        }
+
+        synchronized void subscribe(int topic, Observer observer) {
+            Objects.requireNonNull(observer, "observer");
+            if (bus != null) {
+                bus.subscribe(topicNames[topic], observer);
+                return;
+            }
+            Observer[] current = observers[topic];
+            Observer[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = observer;
+            replace(topic, grown);
         }
 
         void unsubscribe(String event, Observer observer) {
-            List<Observer> list = listeners.get(event);
-            if (list != null) {
-                list.remove(observer);
+            Integer id = topics.get(event);
+            if (id != null)
+                unsubscribe(id, observer);
+        }
+
+        synchronized void unsubscribe(int topic, Observer observer) {
+            if (bus != null) {
+                bus.unsubscribe(topicNames[topic], observer);
+                return;
             }
+            Observer[] current = observers[topic];
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].equals(observer)) {
+                    Observer[] shrunk = current.length == 1 ? NONE : new Observer[current.length - 1];
+                    System.arraycopy(current, 0, shrunk, 0, i);
+                    System.arraycopy(current, i + 1, shrunk, i, current.length - i - 1);
+                    replace(topic, shrunk);
+                    return;
+                }
+            }
+        }
+
+        /** Swaps in a new table so the new row is published by one volatile write. */
+        private void replace(int topic, Observer[] row) {
+            Observer[][] table = observers.clone();
+            table[topic] = row;
+            observers = table;
         }
 
         void emit(String event, Object data) {
-            List<Observer> list = listeners.get(event);
-            if (list != null) {
-                for (Observer observer : list) {
-                    observer.update(event, data);
+            if (bus != null) {
+                bus.publish(event, data);
+                return;
+            }
+            Integer id = topics.get(event);
+            if (id != null)
+                emit(id, data);
+        }
+
+        void emit(int topic, Object data) {
+            if (bus != null) {
+                bus.publish(topicNames[topic], data);
+                return;
+            }
+            String event = topicNames[topic];
+            for (Observer observer : observers[topic]) { // a for-each over an array allocates no iterator
+                observer.update(event, data);
+            }
+        }
+
+        /**
+         * Emits data[0..count) on one topic. A BatchObserver receives all of
+         * them in one updateBatch() call, any other observer one update() per
+         * event; each observer sees the whole batch before the next one starts.
+         */
+        void emitAll(int topic, Object[] data, int count) {
+            Objects.checkFromToIndex(0, count, data.length);
+            String event = topicNames[topic];
+            if (bus != null) { // the bus batches on the subscriber's side
+                for (int i = 0; i < count; i++)
+                    bus.publish(event, data[i]);
+                return;
+            }
+            for (Observer observer : observers[topic]) {
+                if (observer instanceof BatchObserver batch) {
+                    batch.updateBatch(event, data, count);
+                } else {
+                    for (int i = 0; i < count; i++)
+                        observer.update(event, data[i]);
                 }
             }
         }
+
+        /**
+         * False if an event on this topic would reach nobody — check it before
+         * building an expensive payload, which is then only built when needed.
+         */
+        boolean hasObservers(int topic) {
+            return bus != null ? bus.hasSubscribers(topicNames[topic]) : observers[topic].length > 0;
+        }
+
+        /**
+         * The topic's current observers, for subclasses that deliver events
+         * themselves (see StockMarket); null when a bus does the delivering.
+         * The array is shared: never modify it.
+         */
+        Observer[] synchronousObservers(int topic) {
+            return bus != null ? null : observers[topic];
+        }
     }
 
     // =====================================================================
     // EXAMPLE 1: Stock Price Tracker
     // =====================================================================
 
+    /**
+     * 📌 The data of a "price-change" event. skipped > 0 means a ConflatingObserver
+     * merged that many earlier ticks into this one: oldPrice is still the price
+     * the subscriber saw last, newPrice the latest.
+     */
+    record PriceChange(String symbol, double oldPrice, double newPrice, int skipped) {
+
+        /** This pending change followed by newer: one change spanning both. */
+        PriceChange conflate(PriceChange newer) {
+            return new PriceChange(symbol, oldPrice, newer.newPrice, skipped + 1 + newer.skipped);
+        }
+
+        @Override
+        public String toString() {
+            String direction = newPrice > oldPrice ? "📈" : newPrice < oldPrice ? "📉" : "➡️";
+            String text = String.format("%s %s $%.2f → $%.2f", direction, symbol, oldPrice, newPrice);
+            return skipped == 0 ? text : text + " (" + skipped + " ticks skipped)";
+        }
+    }
+
+    /**
+     * 📌 An observer that takes a price change as three plain arguments. The
+     * StockMarket calls priceChanged() directly, so no event object is built
+     * for it; handed a PriceChange some other way, it unpacks it.
+     */
+    interface PriceObserver extends Observer {
+        void priceChanged(String symbol, double oldPrice, double newPrice);
+
+        @Override
+        default void update(String event, Object data) {
+            PriceChange change = (PriceChange) data;
+            priceChanged(change.symbol(), change.oldPrice(), change.newPrice());
+        }
+    }
+
+    /**
+     * updatePrice() allocates nothing unless an observer needs an event
+     * OBJECT: prices are kept as raw double bits in an AtomicLong per symbol
+     * (no boxed Double per tick), nothing is built when nobody listens, and
+     * PriceObservers get the numbers as arguments.
+     */
     static class StockMarket extends EventEmitter {
-        private final Map<String, Double> prices = new HashMap<>();
+        private final Map<String, AtomicLong> prices = new ConcurrentHashMap<>();
+        private final int priceTopic = topic("price-change");
+
+        StockMarket() {
+        }
+
+        StockMarket(AsyncEventBus bus) {
+            super(bus);
+        }
 
         void updatePrice(String symbol, double newPrice) {
-            double oldPrice = prices.getOrDefault(symbol, 0.0);
-            prices.put(symbol, newPrice);
+            // getAndSet is one atomic swap, safe from several threads; a new symbol starts at 0.0
+            AtomicLong price = prices.computeIfAbsent(symbol, s -> new AtomicLong());
+            double oldPrice = Double.longBitsToDouble(price.getAndSet(Double.doubleToRawLongBits(newPrice)));
+
+            Observer[] observers = synchronousObservers(priceTopic);
+            if (observers == null) { // a bus keeps the event, so it needs an object
+                if (hasObservers(priceTopic))
+                    emit(priceTopic, new PriceChange(symbol, oldPrice, newPrice, 0));
+                return;
+            }
+            PriceChange change = null; // built once, and only for an observer that wants an object
+            for (Observer observer : observers) {
+                if (observer instanceof PriceObserver direct) {
+                    direct.priceChanged(symbol, oldPrice, newPrice);
+                } else {
+                    if (change == null)
+                        change = new PriceChange(symbol, oldPrice, newPrice, 0);
+                    observer.update("price-change", change);
+                }
+            }
+        }
 
-            String direction = newPrice > oldPrice ? "📈" : newPrice < oldPrice ? "📉" : "➡️";
-            emit("price-change", String.format("%s %s $%.2f → $%.2f", direction, symbol, oldPrice, newPrice));
+        /**
+         * Subscribes display in CONFLATING mode: it runs on its own thread and,
+         * when it falls behind, receives only the latest price of each symbol.
+         * Unsubscribe the returned observer and close() it to stop.
+         */
+        ConflatingObserver subscribeConflated(Observer display) {
+            ConflatingObserver conflating = new ConflatingObserver(display);
+            subscribe(priceTopic, conflating);
+            return conflating;
         }
     }
 